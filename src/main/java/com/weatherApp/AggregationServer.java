@@ -5,18 +5,50 @@ import spark.Request;
 import spark.Response;
 import spark.Spark;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class AggregationServer {
     private static int port = 4567;
     private static LamportClock clock = new LamportClock();
     private static WeatherDataStore dataStore;
+    private static ResponseCache responseCache;
     private static ObjectMapper objectMapper = new ObjectMapper();
+    private static long checkpointIntervalMillis = 60_000;
+    private static boolean streamResponses = false;
+    private static EntryStreamWriter streamWriter = new EntryStreamWriter();
+    // Set on a backup; PUTs are refused until it is promoted
+    private static volatile ReplicationFollower follower;
+    private static String primaryUrl;
+    // Shared secret a promote request must present in Promote-Token; when empty, only loopback callers may promote
+    private static String promoteToken = "";
+    // Separate execution lanes, so a burst of large GETs cannot hold up ingestion; null runs on Jetty's threads
+    private static RequestLane readLane;
+    private static RequestLane writeLane;
+    private static int httpMaxThreads;
+    // Request, persistence and expiry timings served at /metrics
+    private static ServerMetrics metrics = new ServerMetrics();
+    // Prefixes every ETag; the store version restarts with the process, so a tag cached before a restart must not match
+    private static final String etagEpoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
 
     public static void main(String[] args) {
         String dataStorePath = "data/weather_data.json";
@@ -26,23 +58,70 @@ public class AggregationServer {
         if (args.length > 1) {
             dataStorePath = args[1];
         }
-        dataStore = new WeatherDataStore(dataStorePath);
+        ServerConfig config = ServerConfig.load();
+        dataStore = new WeatherDataStore(dataStorePath,
+                "columnar".equalsIgnoreCase(config.getString("aggregation.store.layout", "objects"))
+                        ? WeatherDataStore.Layout.COLUMNAR : WeatherDataStore.Layout.OBJECTS);
+        dataStore.setMetrics(metrics);
+        if ("binary".equalsIgnoreCase(config.getString("aggregation.snapshot.format", "json"))) {
+            dataStore.setSnapshotFormat(WeatherDataStore.SnapshotFormat.BINARY);
+        }
+        if ("wal".equalsIgnoreCase(config.getString("aggregation.durability", "snapshot"))) {
+            dataStore.enableWriteAheadLog(
+                    config.getInt("aggregation.wal.maxBatch", WriteAheadLog.DEFAULT_MAX_BATCH),
+                    config.getLong("aggregation.wal.maxWaitMicros", WriteAheadLog.DEFAULT_MAX_WAIT_MICROS));
+            checkpointIntervalMillis = config.getLong("aggregation.checkpoint.intervalMillis", checkpointIntervalMillis);
+        }
+        streamResponses = "streaming".equalsIgnoreCase(config.getString("aggregation.response.mode", "cached"));
+        if (config.getBoolean("aggregation.lane.enabled", true)) {
+            readLane = RequestLane.fromConfig(config, "read", 4, 64, RequestLane.Rejection.REJECT);
+            writeLane = RequestLane.fromConfig(config, "write", 8, 1024, RequestLane.Rejection.CALLER_RUNS);
+        }
+        httpMaxThreads = config.getInt("aggregation.http.maxThreads", 0);
+        responseCache = new ResponseCache(dataStore);
+        promoteToken = config.getString("aggregation.replication.promoteToken", "");
+        if ("backup".equalsIgnoreCase(config.getString("aggregation.replication.role", "primary"))) {
+            primaryUrl = config.getString("aggregation.replication.primaryUrl", "http://localhost:4567");
+            follower = new ReplicationFollower(primaryUrl, dataStore, clock,
+                    config.getLong("aggregation.replication.pollMillis", 100),
+                    config.getLong("aggregation.replication.promoteAfterMillis", 0),
+                    () -> System.out.println("Promoted to primary; accepting PUTs on port " + port + "."));
+        }
         startServer();
     }
 
     private static void startServer() {
         // Initialize server using Spark
         Spark.port(port);
+        if (httpMaxThreads > 0) {
+            Spark.threadPool(httpMaxThreads);
+        }
 
         // Load persisted data
         dataStore.loadPersistedData();
 
-        // Schedule data expiration
+        // Compact the write-ahead log into snapshots in the background
+        if (dataStore.isWriteAheadLogEnabled()) {
+            dataStore.startCheckpointer(checkpointIntervalMillis);
+        }
+
+        // Schedule data expiration; backups expire on their own from the replicated lastUpdated times
         scheduleDataExpiration();
 
         // Define routes
-        Spark.put("/weather.json", (request, response) -> handlePut(request, response));
-        Spark.get("/weather.json", (request, response) -> handleGet(request, response));
+        Spark.put("/weather.json", (request, response) -> timed(ServerMetrics.Route.PUT, response,
+                () -> inLane(writeLane, response, () -> handlePut(request, response))));
+        Spark.get("/weather.json", (request, response) -> timed(ServerMetrics.Route.GET, response,
+                () -> inLane(readLane, response, () -> handleGet(request, response))));
+        Spark.get("/replication/log", (request, response) -> timed(ServerMetrics.Route.REPLICATION_LOG, response,
+                () -> inLane(readLane, response, () -> handleReplicationLog(request, response))));
+        Spark.post("/replication/promote", (request, response) -> handlePromote(request, response));
+        Spark.get("/metrics", (request, response) -> handleMetrics(response));
+
+        // Start shipping the primary's log once our own state is loaded
+        if (follower != null) {
+            follower.start();
+        }
 
         // Handle invalid routes
         Spark.notFound((req, res) -> {
@@ -51,24 +130,57 @@ public class AggregationServer {
         });
     }
 
+    // Runs a handler in its lane. A full lane that rejects answers 503 with Retry-After, so the client backs off.
+    private static Object inLane(RequestLane lane, Response response, Callable<Object> handler) throws Exception {
+        if (lane == null) {
+            return handler.call();
+        }
+        try {
+            return lane.call(handler);
+        } catch (RejectedExecutionException e) {
+            response.status(503);
+            response.header("Retry-After", "1");
+            return "Server busy";
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        }
+    }
+
+    // Runs a route handler and records its latency, including time spent queued in a lane, and response status.
+    private static Object timed(ServerMetrics.Route route, Response response, Callable<Object> handler) throws Exception {
+        long start = System.nanoTime();
+        int status = 500; // What Spark answers if the handler throws
+        try {
+            Object result = handler.call();
+            status = response.status();
+            return result;
+        } finally {
+            metrics.recordRequest(route, start, status);
+        }
+    }
+
     // Handles PUT requests and update weather data.
-    private static String handlePut(Request request, Response response) {
+    private static Object handlePut(Request request, Response response) {
+        if (isReadOnly()) {
+            response.status(503);
+            response.header("Primary-Url", primaryUrl);
+            return "Read-only backup; send updates to " + primaryUrl;
+        }
         String lamportTimeHeader = request.headers("Lamport-Time");
         if (lamportTimeHeader == null) {
             response.status(400);
             return "Missing Lamport-Time header";
         }
 
-        int receivedTime;
+        long receivedTime;
         try {
-            receivedTime = Integer.parseInt(lamportTimeHeader);
+            receivedTime = Long.parseLong(lamportTimeHeader);
         } catch (NumberFormatException e) {
             response.status(400);
             return "Invalid Lamport-Time header";
         }
 
-        clock.update(receivedTime);
-
         String contentType = request.contentType();
         if (contentType == null || !contentType.contains("application/json")) {
             response.status(400);
@@ -81,11 +193,16 @@ public class AggregationServer {
             return "No Content";
         }
 
-        // Parse JSON and validate using Jackson
+        // A JSON array uploads many stations in one request
+        if (isJsonArray(body)) {
+            return handleBatchPut(body, receivedTime, response);
+        }
+
+        // Parse JSON and validate
         WeatherEntry weatherEntry;
         try {
-            weatherEntry = objectMapper.readValue(body, WeatherEntry.class);
-            if (weatherEntry.getId() == null || weatherEntry.getId().isEmpty()) {
+            weatherEntry = WeatherEntryCodec.readEntry(body);
+            if (weatherEntry == null || weatherEntry.getId() == null || weatherEntry.getId().isEmpty()) {
                 response.status(500);
                 return "Invalid JSON: Missing 'id'";
             }
@@ -94,23 +211,27 @@ public class AggregationServer {
             return "Invalid JSON format";
         }
 
-        // Update timestamp and last updated time
-        weatherEntry.setTimestamp(clock.getTime());
-        weatherEntry.setLastUpdated(System.currentTimeMillis());
-
-        // Store data
-        dataStore.saveData(weatherEntry, clock.getTime());
-
-        // Persist data
+        // Register the write before stamping so since-queries cannot report a high-water mark past it;
+        // the stamp taken next is always above the clock value read here
+        WeatherDataStore.WriteTicket ticket = dataStore.beginWrite(clock.getTime());
+        boolean created;
         try {
-            dataStore.persistData();
-        } catch (IOException e) {
+            // Update timestamp and last updated time; the stamp is unique even under concurrent PUTs
+            long stamp = clock.updateAndGet(receivedTime);
+            weatherEntry.setTimestamp(stamp);
+            weatherEntry.setLastUpdated(System.currentTimeMillis());
+
+            // Store and persist data; in WAL mode this waits on a group commit shared with concurrent PUTs
+            created = dataStore.saveDataDurably(weatherEntry, stamp);
+        } catch (IOException | UncheckedIOException e) {
             response.status(500);
             return "Failed to persist data";
+        } finally {
+            dataStore.endWrite(ticket);
         }
 
         // Determine response status
-        if (dataStore.isNewEntry(weatherEntry.getId())) {
+        if (created) {
             response.status(201); // Created
         } else {
             response.status(200); // OK
@@ -119,17 +240,85 @@ public class AggregationServer {
         return "Data Received";
     }
 
+    // Applies a JSON array of entries as one batch with one persist, and reports a status per entry.
+    private static Object handleBatchPut(String body, long receivedTime, Response response) {
+        List<WeatherEntry> batch;
+        try {
+            batch = WeatherEntryCodec.readList(body);
+        } catch (IOException e) {
+            response.status(500);
+            return "Invalid JSON format";
+        }
+
+        PutResult[] results = new PutResult[batch.size()];
+        List<WeatherEntry> valid = new ArrayList<>(batch.size());
+        List<Integer> validIndexes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            WeatherEntry entry = batch.get(i);
+            if (entry == null || entry.getId() == null || entry.getId().isEmpty()) {
+                results[i] = new PutResult(i, null, 500, "Missing 'id'");
+            } else {
+                valid.add(entry);
+                validIndexes.add(i);
+            }
+        }
+
+        boolean anyCreated = false;
+        if (!valid.isEmpty()) {
+            WeatherDataStore.WriteTicket ticket = dataStore.beginWrite(clock.getTime());
+            boolean[] created;
+            try {
+                long now = System.currentTimeMillis();
+                for (WeatherEntry entry : valid) {
+                    entry.setTimestamp(clock.updateAndGet(receivedTime));
+                    entry.setLastUpdated(now);
+                }
+                created = dataStore.saveAllDurably(valid);
+            } catch (IOException | UncheckedIOException e) {
+                response.status(500);
+                return "Failed to persist data";
+            } finally {
+                dataStore.endWrite(ticket);
+            }
+            for (int i = 0; i < created.length; i++) {
+                int index = validIndexes.get(i);
+                results[index] = new PutResult(index, valid.get(i).getId(), created[i] ? 201 : 200, null);
+                anyCreated |= created[i];
+            }
+        }
+
+        // 201 if any station was created, 200 if all were updates, 500 if nothing could be applied
+        response.status(valid.isEmpty() ? 500 : anyCreated ? 201 : 200);
+        response.type("application/json");
+        try {
+            return objectMapper.writeValueAsBytes(results);
+        } catch (IOException e) {
+            return "Data Received";
+        }
+    }
+
+    // Returns true if the body's first non-whitespace character opens a JSON array.
+    private static boolean isJsonArray(String body) {
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '[';
+            }
+        }
+        return false;
+    }
+
     // Handles GET requests to retrieve weather data.
-    private static String handleGet(Request request, Response response) {
+    private static Object handleGet(Request request, Response response) {
         String lamportTimeHeader = request.headers("Lamport-Time");
         if (lamportTimeHeader == null) {
             response.status(400);
             return "Missing Lamport-Time header";
         }
 
-        int receivedTime;
+        long receivedTime;
         try {
-            receivedTime = Integer.parseInt(lamportTimeHeader);
+            receivedTime = Long.parseLong(lamportTimeHeader);
         } catch (NumberFormatException e) {
             response.status(400);
             return "Invalid Lamport-Time header";
@@ -137,24 +326,240 @@ public class AggregationServer {
 
         clock.update(receivedTime);
 
-        List<WeatherEntry> data = dataStore.getData();
+        Set<String> stationIds = parseStationIds(request);
 
-        response.type("application/json");
+        Long since = null;
+        String sinceParam = request.queryParams("since");
+        if (sinceParam != null) {
+            try {
+                since = Long.parseLong(sinceParam.trim());
+            } catch (NumberFormatException e) {
+                response.status(400);
+                return "Invalid since parameter";
+            }
+        }
+
+        // Every change bumps the store version, so it identifies any response of this URL; read it before building one.
+        // The same URL also serves NDJSON when Accept asks for it, so that representation gets its own tag
+        boolean ndjson = wantsNdjson(request);
+        String etag = "\"" + etagEpoch + "-" + dataStore.getVersion() + (ndjson ? "-nd" : "") + "\"";
+        response.header("ETag", etag);
+        response.header("Vary", "Accept");
+        if (matchesETag(request.headers("If-None-Match"), etag)) {
+            response.status(304);
+            return "";
+        }
+
+        response.type(ndjson ? EntryStreamWriter.NDJSON_TYPE : "application/json");
+        response.status(200);
+        try {
+            Iterable<WeatherEntry> entries;
+            if (since != null) {
+                // Only entries stamped after since, found through the change-ordered index
+                WeatherDataStore.ChangeSet changes = dataStore.getChangesSince(since);
+                List<WeatherEntry> changed = changes.getEntries();
+                if (!stationIds.isEmpty()) {
+                    changed.removeIf(entry -> !stationIds.contains(entry.getId()));
+                }
+                response.header("Lamport-High-Water", String.valueOf(changes.getHighWater()));
+                response.header("Station-Count", String.valueOf(dataStore.size()));
+                entries = changed;
+            } else if (!stationIds.isEmpty()) {
+                // Index lookups for the requested stations only
+                entries = dataStore.getEntries(stationIds);
+            } else if (!ndjson && !streamResponses) {
+                // Serialized once per data version and shared by every GET until the next change
+                return responseCache.getBody();
+            } else {
+                entries = dataStore.entryView();
+            }
+
+            if (!ndjson && !streamResponses) {
+                return WeatherEntryCodec.writeArrayBytes(entries);
+            }
+            // Write straight to the socket; the response is committed once the generator's buffer first fills
+            OutputStream out = response.raw().getOutputStream();
+            if (ndjson) {
+                streamWriter.writeNdjson(out, entries);
+            } else {
+                streamWriter.writeArray(out, entries);
+            }
+            out.flush();
+            return "";
+        } catch (IOException e) {
+            return failResponse(request, response, e);
+        }
+    }
+
+    // Serves the ordered update log to backups: entries stamped after since, oldest first, as NDJSON.
+    // Headers carry the high-water mark to ask from next and the station count, so a backup can spot removals.
+    private static Object handleReplicationLog(Request request, Response response) {
+        long since;
+        try {
+            since = Long.parseLong(request.queryParamOrDefault("since", "-1").trim());
+        } catch (NumberFormatException e) {
+            response.status(400);
+            return "Invalid since parameter";
+        }
+        String lamportTimeHeader = request.headers("Lamport-Time");
+        if (lamportTimeHeader != null) {
+            try {
+                clock.update(Long.parseLong(lamportTimeHeader));
+            } catch (NumberFormatException e) {
+                response.status(400);
+                return "Invalid Lamport-Time header";
+            }
+        }
+
+        WeatherDataStore.ChangeSet changes = dataStore.getChangesSince(since);
         response.status(200);
+        response.type(EntryStreamWriter.NDJSON_TYPE);
+        response.header("Lamport-High-Water", String.valueOf(changes.getHighWater()));
+        response.header("Station-Count", String.valueOf(dataStore.size()));
+        response.header("Replication-Role", isReadOnly() ? "backup" : "primary");
         try {
-            // List to JSON
-            return objectMapper.writeValueAsString(data);
+            OutputStream out = response.raw().getOutputStream();
+            streamWriter.writeNdjson(out, changes.getEntries());
+            out.flush();
+            return "";
         } catch (IOException e) {
+            return failResponse(request, response, e);
+        }
+    }
+
+    // Answers a GET whose body could not be written. Before anything was sent this is a plain 500. Once the response is
+    // committed its 200 status is on the wire, and finishing it normally would make a truncated body look complete;
+    // the connection is aborted instead, so the client sees a failed transfer.
+    static Object failResponse(Request request, Response response, IOException e) {
+        if (!response.raw().isCommitted()) {
+            response.raw().resetBuffer();
             response.status(500);
             return "Failed to serialize data";
         }
+        System.err.println("Aborting response for " + request.pathInfo() + " after a write failure: " + e.getMessage());
+        org.eclipse.jetty.server.Request jettyRequest = org.eclipse.jetty.server.Request.getBaseRequest(request.raw());
+        if (jettyRequest != null) {
+            jettyRequest.getHttpChannel().abort(e);
+        }
+        return "";
+    }
+
+    // Promotes a backup to primary: it stops following and starts accepting PUTs.
+    private static Object handlePromote(Request request, Response response) {
+        if (!mayPromote(promoteToken, request.headers("Promote-Token"), request.ip())) {
+            response.status(403);
+            return "Forbidden";
+        }
+        ReplicationFollower current = follower;
+        if (current == null || !current.promote()) {
+            response.status(409);
+            return "Already primary";
+        }
+        response.status(200);
+        return "Promoted";
+    }
+
+    // Checks the caller's token when one is configured; without one, only a caller on this host may promote.
+    static boolean mayPromote(String token, String presented, String remoteAddress) {
+        if (!token.isEmpty()) {
+            return presented != null && MessageDigest.isEqual(
+                    token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            return remoteAddress != null && InetAddress.getByName(remoteAddress).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    // Reports request counts and latencies, persistence and expiry timings, store size, the Lamport clock and lane rejections.
+    private static Object handleMetrics(Response response) {
+        Map<String, Object> report = metrics.toMap();
+
+        Map<String, Object> store = new LinkedHashMap<>();
+        store.put("stations", dataStore.size());
+        store.put("version", dataStore.getVersion());
+        store.put("durability", dataStore.isWriteAheadLogEnabled() ? "wal" : "snapshot");
+        report.put("store", store);
+        report.put("lamportClock", clock.getTime());
+        report.put("role", isReadOnly() ? "backup" : "primary");
+
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        for (RequestLane lane : new RequestLane[]{readLane, writeLane}) {
+            if (lane != null) {
+                lanes.put(lane.getName(), Map.of("rejected", lane.getRejectedCount()));
+            }
+        }
+        report.put("lanes", lanes);
+
+        response.status(200);
+        response.type("application/json");
+        try {
+            return objectMapper.writeValueAsBytes(report);
+        } catch (IOException e) {
+            response.status(500);
+            return "Failed to serialize metrics";
+        }
+    }
+
+    // Returns true while this server is a backup that has not been promoted.
+    private static boolean isReadOnly() {
+        ReplicationFollower current = follower;
+        return current != null && !current.isPromoted();
+    }
+
+    // Returns true if the client asked for newline-delimited JSON via ?format=ndjson or the Accept header.
+    private static boolean wantsNdjson(Request request) {
+        if ("ndjson".equalsIgnoreCase(request.queryParams("format"))) {
+            return true;
+        }
+        String accept = request.headers("Accept");
+        return accept != null && accept.contains(EntryStreamWriter.NDJSON_TYPE);
+    }
+
+    // Returns true if an If-None-Match header lists the given ETag (or is "*").
+    static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Collects station ids from ?id=A or ?id=A,B,C (the parameter may also be repeated).
+    static Set<String> parseStationIds(Request request) {
+        Set<String> ids = new LinkedHashSet<>();
+        String[] values = request.queryParamsValues("id");
+        if (values == null) {
+            return ids;
+        }
+        for (String value : values) {
+            for (String id : value.split(",")) {
+                String trimmed = id.trim();
+                if (!trimmed.isEmpty()) {
+                    ids.add(trimmed);
+                }
+            }
+        }
+        return ids;
     }
 
     // Schedules data expiration.
     private static void scheduleDataExpiration() {
         ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
         scheduler.scheduleAtFixedRate(() -> {
-            dataStore.expireOldData();
+            // Rewrite the snapshot only when something expired; an idle server does no I/O here
+            if (dataStore.expireOldData() == 0) {
+                return;
+            }
             try {
                 dataStore.persistData();
             } catch (IOException e) {
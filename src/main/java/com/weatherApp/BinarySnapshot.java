@@ -0,0 +1,201 @@
+package com.weatherApp;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Versioned binary snapshot of the data store.
+//
+// Layout (big-endian):
+//   header     magic "WXSN", version, entry count, dictionary size (4 x int)
+//   dictionary per string: byte length (int) + UTF-8 bytes; every String field is stored once here
+//   records    RECORD_BYTES per entry: 8 dictionary refs (int, -1 = null), 6 doubles, 3 ints,
+//              Lamport timestamp (long), lastUpdated (long)
+//   trailer    CRC32 of everything before it (int)
+public class BinarySnapshot {
+    public static final int MAGIC = 0x5758534E; // "WXSN"
+    public static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 8 * 4 + 6 * 8 + 3 * 4 + 8 + 8;
+    private static final int TRAILER_BYTES = 4;
+
+    private BinarySnapshot() {
+    }
+
+    // Returns true if the file starts with the binary snapshot magic number.
+    public static boolean isBinarySnapshot(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] magic = in.readNBytes(4);
+            return magic.length == 4 && ByteBuffer.wrap(magic).getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Writes the entries to the given file and forces it to disk.
+    public static void write(Path path, Collection<WeatherEntry> source) throws IOException {
+        // Copy the references once so the dictionary and record passes see the same entries
+        List<WeatherEntry> entries = new ArrayList<>(source);
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (WeatherEntry entry : entries) {
+            intern(entry.getId(), dictionary, strings);
+            intern(entry.getName(), dictionary, strings);
+            intern(entry.getState(), dictionary, strings);
+            intern(entry.getTimeZone(), dictionary, strings);
+            intern(entry.getLocalDateTime(), dictionary, strings);
+            intern(entry.getLocalDateTimeFull(), dictionary, strings);
+            intern(entry.getCloud(), dictionary, strings);
+            intern(entry.getWindDir(), dictionary, strings);
+        }
+
+        try (FileOutputStream file = new FileOutputStream(path.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            out.writeInt(strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            for (WeatherEntry entry : entries) {
+                out.writeInt(ref(entry.getId(), dictionary));
+                out.writeInt(ref(entry.getName(), dictionary));
+                out.writeInt(ref(entry.getState(), dictionary));
+                out.writeInt(ref(entry.getTimeZone(), dictionary));
+                out.writeInt(ref(entry.getLocalDateTime(), dictionary));
+                out.writeInt(ref(entry.getLocalDateTimeFull(), dictionary));
+                out.writeInt(ref(entry.getCloud(), dictionary));
+                out.writeInt(ref(entry.getWindDir(), dictionary));
+                out.writeDouble(entry.getLat());
+                out.writeDouble(entry.getLon());
+                out.writeDouble(entry.getAirTemp());
+                out.writeDouble(entry.getApparentT());
+                out.writeDouble(entry.getDewpt());
+                out.writeDouble(entry.getPress());
+                out.writeInt(entry.getRelHum());
+                out.writeInt(entry.getWindSpdKmh());
+                out.writeInt(entry.getWindSpdKt());
+                out.writeLong(entry.getTimestamp());
+                out.writeLong(entry.getLastUpdated());
+            }
+            out.flush();
+            // The checksum itself is written past the CheckedOutputStream
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+            file.getFD().sync();
+        }
+    }
+
+    // Memory-maps the file, verifies it and hands each decoded entry to the consumer. Returns the entry count.
+    public static int read(Path path, Consumer<WeatherEntry> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot size: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary snapshot: " + path);
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            int bodyLength = (int) size - TRAILER_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit(bodyLength));
+            if ((int) crc.getValue() != buffer.getInt(bodyLength)) {
+                throw new IOException("Snapshot checksum mismatch: " + path);
+            }
+
+            int count = buffer.getInt(8);
+            int dictionarySize = buffer.getInt(12);
+            buffer.position(HEADER_BYTES);
+            String[] strings = new String[dictionarySize];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < dictionarySize; i++) {
+                int length = buffer.getInt();
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                buffer.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            if (buffer.position() + (long) count * RECORD_BYTES != bodyLength) {
+                throw new IOException("Snapshot record section is truncated: " + path);
+            }
+
+            for (int i = 0; i < count; i++) {
+                WeatherEntry entry = new WeatherEntry();
+                entry.setId(lookup(strings, buffer.getInt()));
+                entry.setName(lookup(strings, buffer.getInt()));
+                entry.setState(lookup(strings, buffer.getInt()));
+                entry.setTimeZone(lookup(strings, buffer.getInt()));
+                entry.setLocalDateTime(lookup(strings, buffer.getInt()));
+                entry.setLocalDateTimeFull(lookup(strings, buffer.getInt()));
+                entry.setCloud(lookup(strings, buffer.getInt()));
+                entry.setWindDir(lookup(strings, buffer.getInt()));
+                entry.setLat(buffer.getDouble());
+                entry.setLon(buffer.getDouble());
+                entry.setAirTemp(buffer.getDouble());
+                entry.setApparentT(buffer.getDouble());
+                entry.setDewpt(buffer.getDouble());
+                entry.setPress(buffer.getDouble());
+                entry.setRelHum(buffer.getInt());
+                entry.setWindSpdKmh(buffer.getInt());
+                entry.setWindSpdKt(buffer.getInt());
+                entry.setTimestamp(buffer.getLong());
+                entry.setLastUpdated(buffer.getLong());
+                consumer.accept(entry);
+            }
+            return count;
+        }
+    }
+
+    private static void intern(String value, Map<String, Integer> dictionary, List<String> strings) {
+        if (value != null && dictionary.putIfAbsent(value, strings.size()) == null) {
+            strings.add(value);
+        }
+    }
+
+    private static int ref(String value, Map<String, Integer> dictionary) {
+        return value == null ? -1 : dictionary.get(value);
+    }
+
+    private static String lookup(String[] strings, int ref) throws IOException {
+        if (ref == -1) {
+            return null;
+        }
+        if (ref < 0 || ref >= strings.length) {
+            throw new IOException("Invalid dictionary reference: " + ref);
+        }
+        return strings[ref];
+    }
+}
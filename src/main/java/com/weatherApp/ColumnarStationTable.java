@@ -0,0 +1,544 @@
+package com.weatherApp;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+// Station map that stores each station as a row across primitive column arrays instead of as a WeatherEntry object.
+// Numbers live in double/int/long arrays indexed by a station slot; state, time zone, cloud and wind direction
+// are dictionary-encoded to short codes, since a few dozen distinct values repeat across every station.
+// Observation times change over time but are shared by most stations at any moment, so rows share recent instances.
+// Station ids are found through an open-addressing int table, with no per-station map node or boxed slot.
+// get() and iteration materialize a fresh WeatherEntry per call, so callers never see the table change under them.
+// One read-write lock guards the table: rows are read under the read lock, and compute runs under the write lock,
+// which keeps the per-station atomicity WeatherDataStore relies on at the price of serializing writes.
+public class ColumnarStationTable extends AbstractMap<String, WeatherEntry> {
+    private static final int INITIAL_CAPACITY = 1024;
+    // Dictionary codes: NULL_CODE for a null string, OVERFLOW_CODE when the value sits in the overflow column
+    private static final short NULL_CODE = -1;
+    private static final short OVERFLOW_CODE = -2;
+    // Distinct values a dictionary takes before further new values are stored as plain strings
+    static final int MAX_DICTIONARY_SIZE = 4096;
+    // Recently seen observation-time strings, direct-mapped by hash, so rows reporting the same time share one String
+    private static final int RECENT_STRINGS = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Row storage, indexed by slot; ids[slot] == null marks a free slot
+    private String[] ids;
+    private String[] names;
+    private String[] localDateTimes;
+    private String[] localDateTimesFull;
+    private double[] lats;
+    private double[] lons;
+    private double[] airTemps;
+    private double[] apparentTs;
+    private double[] dewpts;
+    private double[] presses;
+    private int[] relHums;
+    private int[] windSpdKmhs;
+    private int[] windSpdKts;
+    private long[] timestamps;
+    private long[] lastUpdateds;
+    private final Dictionary states = new Dictionary();
+    private final Dictionary timeZones = new Dictionary();
+    private final Dictionary clouds = new Dictionary();
+    private final Dictionary windDirs = new Dictionary();
+    private final String[] recentTimes = new String[RECENT_STRINGS];
+
+    // Slots in use are below slotCount; freed slots below it are reused first
+    private int slotCount;
+    private int size;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    // Linear-probing index of slot + 1 by id hash; 0 marks an empty bucket
+    private int[] index;
+
+    public ColumnarStationTable() {
+        allocate(INITIAL_CAPACITY);
+        index = new int[INITIAL_CAPACITY * 2];
+    }
+
+    @Override
+    public WeatherEntry get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = find((String) key);
+            return slot < 0 ? null : materialize(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return find((String) key) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Stores the entry's values in the station's row; the entry object itself is not kept.
+    @Override
+    public WeatherEntry put(String id, WeatherEntry entry) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(id);
+            WeatherEntry previous = slot < 0 ? null : materialize(slot);
+            store(slot < 0 ? insert(id) : slot, entry);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public WeatherEntry remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = find((String) key);
+            if (slot < 0) {
+                return null;
+            }
+            WeatherEntry previous = materialize(slot);
+            delete(slot);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Runs the function and stores or removes its result as one atomic step, like ConcurrentHashMap.compute.
+    @Override
+    public WeatherEntry compute(String id, BiFunction<? super String, ? super WeatherEntry, ? extends WeatherEntry> function) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(id);
+            WeatherEntry result = function.apply(id, slot < 0 ? null : materialize(slot));
+            if (result != null) {
+                store(slot < 0 ? insert(id) : slot, result);
+            } else if (slot >= 0) {
+                delete(slot);
+            }
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public WeatherEntry computeIfPresent(String id, BiFunction<? super String, ? super WeatherEntry, ? extends WeatherEntry> function) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(id);
+            if (slot < 0) {
+                return null;
+            }
+            WeatherEntry result = function.apply(id, materialize(slot));
+            if (result != null) {
+                store(slot, result);
+            } else {
+                delete(slot);
+            }
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            allocate(INITIAL_CAPACITY);
+            index = new int[INITIAL_CAPACITY * 2];
+            slotCount = 0;
+            size = 0;
+            freeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A weakly consistent view, like ConcurrentHashMap's: each row is read under the lock as iteration reaches it.
+    @Override
+    public Collection<WeatherEntry> values() {
+        return new AbstractCollection<WeatherEntry>() {
+            @Override
+            public Iterator<WeatherEntry> iterator() {
+                return new RowIterator();
+            }
+
+            @Override
+            public int size() {
+                return ColumnarStationTable.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, WeatherEntry>> entrySet() {
+        return new AbstractSet<Map.Entry<String, WeatherEntry>>() {
+            @Override
+            public Iterator<Map.Entry<String, WeatherEntry>> iterator() {
+                RowIterator rows = new RowIterator();
+                return new Iterator<Map.Entry<String, WeatherEntry>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return rows.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, WeatherEntry> next() {
+                        WeatherEntry entry = rows.next();
+                        return new SimpleImmutableEntry<>(entry.getId(), entry);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ColumnarStationTable.this.size();
+            }
+        };
+    }
+
+    // Retrieves the number of distinct values held across the string dictionaries.
+    int getDictionarySize() {
+        lock.readLock().lock();
+        try {
+            return states.size() + timeZones.size() + clouds.size() + windDirs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private WeatherEntry materialize(int slot) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(ids[slot]);
+        entry.setName(names[slot]);
+        entry.setState(states.decode(slot));
+        entry.setTimeZone(timeZones.decode(slot));
+        entry.setLat(lats[slot]);
+        entry.setLon(lons[slot]);
+        entry.setLocalDateTime(localDateTimes[slot]);
+        entry.setLocalDateTimeFull(localDateTimesFull[slot]);
+        entry.setAirTemp(airTemps[slot]);
+        entry.setApparentT(apparentTs[slot]);
+        entry.setCloud(clouds.decode(slot));
+        entry.setDewpt(dewpts[slot]);
+        entry.setPress(presses[slot]);
+        entry.setRelHum(relHums[slot]);
+        entry.setWindDir(windDirs.decode(slot));
+        entry.setWindSpdKmh(windSpdKmhs[slot]);
+        entry.setWindSpdKt(windSpdKts[slot]);
+        entry.setTimestamp(timestamps[slot]);
+        entry.setLastUpdated(lastUpdateds[slot]);
+        return entry;
+    }
+
+    // Copies an entry's fields into a row; the id column is set by insert.
+    private void store(int slot, WeatherEntry entry) {
+        names[slot] = entry.getName();
+        states.encode(slot, entry.getState());
+        timeZones.encode(slot, entry.getTimeZone());
+        lats[slot] = entry.getLat();
+        lons[slot] = entry.getLon();
+        localDateTimes[slot] = shared(entry.getLocalDateTime());
+        localDateTimesFull[slot] = shared(entry.getLocalDateTimeFull());
+        airTemps[slot] = entry.getAirTemp();
+        apparentTs[slot] = entry.getApparentT();
+        clouds.encode(slot, entry.getCloud());
+        dewpts[slot] = entry.getDewpt();
+        presses[slot] = entry.getPress();
+        relHums[slot] = entry.getRelHum();
+        windDirs.encode(slot, entry.getWindDir());
+        windSpdKmhs[slot] = entry.getWindSpdKmh();
+        windSpdKts[slot] = entry.getWindSpdKt();
+        timestamps[slot] = entry.getTimestamp();
+        lastUpdateds[slot] = entry.getLastUpdated();
+    }
+
+    // Returns an equal string already held by another row if one was seen recently, otherwise remembers this one.
+    private String shared(String value) {
+        if (value == null) {
+            return null;
+        }
+        int bucket = (value.hashCode() * 0x9E3779B9 >>> 16) & (RECENT_STRINGS - 1);
+        String recent = recentTimes[bucket];
+        if (value.equals(recent)) {
+            return recent;
+        }
+        recentTimes[bucket] = value;
+        return value;
+    }
+
+    // Takes a free slot (growing the columns if needed) for a new station and indexes it.
+    private int insert(String id) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == ids.length) {
+                grow(ids.length * 2);
+            }
+            slot = slotCount++;
+        }
+        ids[slot] = id;
+        size++;
+        if (size * 2 > index.length) {
+            rebuildIndex(index.length * 2);
+        } else {
+            addToIndex(slot);
+        }
+        return slot;
+    }
+
+    // Unindexes a station and frees its slot, dropping its string references so they can be collected.
+    private void delete(int slot) {
+        removeFromIndex(slot);
+        ids[slot] = null;
+        names[slot] = null;
+        localDateTimes[slot] = null;
+        localDateTimesFull[slot] = null;
+        states.encode(slot, null);
+        timeZones.encode(slot, null);
+        clouds.encode(slot, null);
+        windDirs.encode(slot, null);
+        size--;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    // Returns the slot holding the id, or -1.
+    private int find(String id) {
+        int mask = index.length - 1;
+        for (int i = home(id, mask); index[i] != 0; i = (i + 1) & mask) {
+            int slot = index[i] - 1;
+            if (ids[slot].equals(id)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void addToIndex(int slot) {
+        int mask = index.length - 1;
+        int i = home(ids[slot], mask);
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = slot + 1;
+    }
+
+    // Backward-shift deletion: later entries of the probe run move up so lookups never need tombstones.
+    private void removeFromIndex(int slot) {
+        int mask = index.length - 1;
+        int hole = home(ids[slot], mask);
+        while (index[hole] != slot + 1) {
+            hole = (hole + 1) & mask;
+        }
+        index[hole] = 0;
+        for (int i = (hole + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int wanted = home(ids[index[i] - 1], mask);
+            // Move the entry into the hole unless its home lies cyclically in (hole, i]
+            boolean homeBetween = hole <= i ? hole < wanted && wanted <= i : hole < wanted || wanted <= i;
+            if (!homeBetween) {
+                index[hole] = index[i];
+                index[i] = 0;
+                hole = i;
+            }
+        }
+    }
+
+    private void rebuildIndex(int length) {
+        index = new int[length];
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (ids[slot] != null) {
+                addToIndex(slot);
+            }
+        }
+    }
+
+    private static int home(String id, int mask) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        ids = new String[capacity];
+        names = new String[capacity];
+        localDateTimes = new String[capacity];
+        localDateTimesFull = new String[capacity];
+        lats = new double[capacity];
+        lons = new double[capacity];
+        airTemps = new double[capacity];
+        apparentTs = new double[capacity];
+        dewpts = new double[capacity];
+        presses = new double[capacity];
+        relHums = new int[capacity];
+        windSpdKmhs = new int[capacity];
+        windSpdKts = new int[capacity];
+        timestamps = new long[capacity];
+        lastUpdateds = new long[capacity];
+        states.reset(capacity);
+        timeZones.reset(capacity);
+        clouds.reset(capacity);
+        windDirs.reset(capacity);
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        localDateTimes = Arrays.copyOf(localDateTimes, capacity);
+        localDateTimesFull = Arrays.copyOf(localDateTimesFull, capacity);
+        lats = Arrays.copyOf(lats, capacity);
+        lons = Arrays.copyOf(lons, capacity);
+        airTemps = Arrays.copyOf(airTemps, capacity);
+        apparentTs = Arrays.copyOf(apparentTs, capacity);
+        dewpts = Arrays.copyOf(dewpts, capacity);
+        presses = Arrays.copyOf(presses, capacity);
+        relHums = Arrays.copyOf(relHums, capacity);
+        windSpdKmhs = Arrays.copyOf(windSpdKmhs, capacity);
+        windSpdKts = Arrays.copyOf(windSpdKts, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        lastUpdateds = Arrays.copyOf(lastUpdateds, capacity);
+        states.grow(capacity);
+        timeZones.grow(capacity);
+        clouds.grow(capacity);
+        windDirs.grow(capacity);
+    }
+
+    // Walks the slots in order, materializing each live row under the read lock.
+    private class RowIterator implements Iterator<WeatherEntry> {
+        private int nextSlot;
+        private WeatherEntry next;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            lock.readLock().lock();
+            try {
+                while (nextSlot < slotCount) {
+                    int slot = nextSlot++;
+                    if (ids[slot] != null) {
+                        next = materialize(slot);
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public WeatherEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            WeatherEntry entry = next;
+            next = null;
+            return entry;
+        }
+    }
+
+    // One dictionary-encoded string column: a short code per slot, and a plain string column for values that
+    // arrived after the dictionary filled up. Values are never evicted; the cap bounds the dictionary's size.
+    private static class Dictionary {
+        private final Map<String, Short> codes = new HashMap<>();
+        private String[] values = new String[16];
+        private short[] slotCodes;
+        // Allocated only once a value overflows the dictionary
+        private String[] overflow;
+
+        void reset(int capacity) {
+            codes.clear();
+            values = new String[16];
+            slotCodes = new short[capacity];
+            overflow = null;
+        }
+
+        void grow(int capacity) {
+            slotCodes = Arrays.copyOf(slotCodes, capacity);
+            if (overflow != null) {
+                overflow = Arrays.copyOf(overflow, capacity);
+            }
+        }
+
+        void encode(int slot, String value) {
+            if (overflow != null) {
+                overflow[slot] = null;
+            }
+            if (value == null) {
+                slotCodes[slot] = NULL_CODE;
+                return;
+            }
+            Short code = codes.get(value);
+            if (code == null && codes.size() < MAX_DICTIONARY_SIZE) {
+                code = (short) codes.size();
+                codes.put(value, code);
+                if (code == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                values[code] = value;
+            }
+            if (code != null) {
+                slotCodes[slot] = code;
+            } else {
+                if (overflow == null) {
+                    overflow = new String[slotCodes.length];
+                }
+                overflow[slot] = value;
+                slotCodes[slot] = OVERFLOW_CODE;
+            }
+        }
+
+        String decode(int slot) {
+            short code = slotCodes[slot];
+            if (code == NULL_CODE) {
+                return null;
+            }
+            return code == OVERFLOW_CODE ? overflow[slot] : values[code];
+        }
+
+        int size() {
+            return codes.size();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.weatherApp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Places station ids on shards by consistent hashing.
+// Each shard owns many points (virtual nodes) on a 64-bit ring and a station belongs to the first point at or after
+// its hash, so stations spread evenly and adding or removing a shard only moves the stations next to its points.
+public class ConsistentHashRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final List<String> shards;
+    // Ring points in ascending order, with the shard index owning each one
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(List<String> shards) {
+        this(shards, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        int perShard = Math.max(1, virtualNodes);
+        long[][] pairs = new long[shards.size() * perShard][];
+        int n = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (int node = 0; node < perShard; node++) {
+                pairs[n++] = new long[]{hash(shards.get(shard) + "#" + node), shard};
+            }
+        }
+        // Ties are broken by shard index, so every router builds the same ring from the same list
+        Arrays.sort(pairs, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        points = new long[pairs.length];
+        owners = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            points[i] = pairs[i][0];
+            owners[i] = (int) pairs[i][1];
+        }
+    }
+
+    // Retrieves the shard that owns the station id.
+    public String shardFor(String id) {
+        return shards.get(shardIndexFor(id));
+    }
+
+    // Retrieves the position in getShards() of the shard that owns the station id.
+    public int shardIndexFor(String id) {
+        int i = Arrays.binarySearch(points, hash(id));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        // Past the last point wraps around to the first
+        return owners[i == points.length ? 0 : i];
+    }
+
+    // Retrieves the shards in the order given.
+    public List<String> getShards() {
+        return shards;
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes with a murmur3 finalizer, so similar ids land far apart.
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,22 +1,54 @@
 package com.weatherApp;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.BufferedReader;
 import java.io.File;
 import java.util.Properties;
 import java.io.InputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 public class ContentServer {
     private static LamportClock clock = new LamportClock();
-    private static ObjectMapper objectMapper = new ObjectMapper();
     private static HttpService httpService = new HttpServiceImpl();
+    private static RetryScheduler retryScheduler = new RetryScheduler();
+    private static UploadSpool spool;
+    private static int spoolBatchSize = 500;
+    private static final ReentrantLock drainLock = new ReentrantLock();
+    private static final ExecutorService spoolDrainer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "spool-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public static void setHttpService(HttpService service) {
         httpService = service;
     }
 
+    public static void setRetryScheduler(RetryScheduler scheduler) {
+        retryScheduler = scheduler;
+    }
+
+    // Installs the spool that keeps updates the server could not take; null turns spooling off.
+    public static void setSpool(UploadSpool uploadSpool, int batchSize) {
+        spool = uploadSpool;
+        spoolBatchSize = Math.max(1, batchSize);
+        if (uploadSpool != null) {
+            // Stamps from before a restart must stay older than anything sent from now on
+            clock.update(uploadSpool.getHighestStamp());
+        }
+    }
+
     public static void main(String[] args) {
         Properties prop = new Properties();
         try (InputStream input = ContentServer.class.getClassLoader().getResourceAsStream("config.properties")) {
@@ -26,149 +58,302 @@ public class ContentServer {
             }
             prop.load(input);
             String serverUrl = prop.getProperty("server.url");
-            String filePath = prop.getProperty("data.filePath");
+            String watchDir = prop.getProperty("content.watch.dir", "").trim();
+            // Watch mode keeps up to maxInFlight uploads going at once, which needs a client with real async I/O
+            if ("pooled".equalsIgnoreCase(prop.getProperty("content.http.client", "").trim()) || !watchDir.isEmpty()) {
+                setHttpService(new HttpClientService());
+            }
+            setRetryScheduler(createRetryScheduler(prop));
+            String spoolPath = prop.getProperty("content.spool.path", "").trim();
+            if (!spoolPath.isEmpty()) {
+                UploadSpool uploadSpool = new UploadSpool(Paths.get(spoolPath));
+                uploadSpool.open();
+                setSpool(uploadSpool, Integer.parseInt(prop.getProperty("content.spool.batchSize", "500").trim()));
+                // Deliver what an earlier run could not before sending anything newer
+                drainSpool(serverUrl);
+            }
+            // Watch mode: stay up and upload station files from a directory whenever they change
+            if (!watchDir.isEmpty()) {
+                runWatchMode(serverUrl, Paths.get(watchDir),
+                        Integer.parseInt(prop.getProperty("content.watch.maxInFlight", "8").trim()),
+                        Long.parseLong(prop.getProperty("content.watch.rescanMillis", "30000").trim()),
+                        Long.parseLong(prop.getProperty("content.spool.retryMillis", "30000").trim()));
+                return;
+            }
 
-            WeatherEntry jsonData = readFile(filePath);
-            sendPutRequest(serverUrl, jsonData);
+            // One or more station files or multi-station feeds, separated by commas
+            String[] filePaths = prop.getProperty("data.filePath").split(",");
+            long batchWindowMillis = Long.parseLong(prop.getProperty("content.batch.windowMillis", "0").trim());
+
+            if (batchWindowMillis <= 0) {
+                for (String filePath : filePaths) {
+                    forEachEntry(filePath.trim(), entry -> sendPutRequest(serverUrl, entry));
+                }
+            } else {
+                // Batch mode: station updates inside the window go out as one PUT
+                int batchMaxEntries = Integer.parseInt(prop.getProperty("content.batch.maxEntries", "500").trim());
+                try (PutBatcher batcher = new PutBatcher(batchWindowMillis, batchMaxEntries,
+                        entries -> sendBatchPutRequest(serverUrl, entries))) {
+                    for (String filePath : filePaths) {
+                        forEachEntry(filePath.trim(), batcher::submit);
+                    }
+                }
+            }
+            if (spool != null) {
+                awaitSpoolDrain();
+                spool.close();
+            }
         } catch (IOException ex) {
             ex.printStackTrace();
         }
     }
 
+    // Uploads the directory's station files, then every file that changes, until the process is stopped.
+    // Files whose upload failed are tried again by a full rescan every rescanMillis.
+    // Spooled updates are retried every spoolRetryMillis in case no new upload comes along to find the server back.
+    static void runWatchMode(String serverUrl, Path directory, int maxInFlight, long rescanMillis, long spoolRetryMillis) throws IOException {
+        StationFileWatcher watcher = new StationFileWatcher(directory, maxInFlight, rescanMillis,
+                entry -> sendPutRequestAsync(serverUrl, entry));
+        ScheduledExecutorService spoolTimer = Executors.newSingleThreadScheduledExecutor();
+        if (spool != null && spoolRetryMillis > 0) {
+            spoolTimer.scheduleWithFixedDelay(() -> drainSpoolAsync(serverUrl),
+                    spoolRetryMillis, spoolRetryMillis, TimeUnit.MILLISECONDS);
+        }
+        watcher.start();
+        System.out.println("Watching " + directory + " for station file changes.");
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            spoolTimer.shutdownNow();
+            watcher.close();
+        }
+    }
+
+    // Builds the retry scheduler from the content.retry.* and content.circuit.* settings.
+    static RetryScheduler createRetryScheduler(Properties prop) {
+        return new RetryScheduler(
+                Integer.parseInt(prop.getProperty("content.retry.maxRetries", String.valueOf(RetryScheduler.DEFAULT_MAX_RETRIES)).trim()),
+                Long.parseLong(prop.getProperty("content.retry.baseDelayMillis", String.valueOf(RetryScheduler.DEFAULT_BASE_DELAY_MILLIS)).trim()),
+                Long.parseLong(prop.getProperty("content.retry.maxDelayMillis", String.valueOf(RetryScheduler.DEFAULT_MAX_DELAY_MILLIS)).trim()),
+                Integer.parseInt(prop.getProperty("content.circuit.failureThreshold", String.valueOf(RetryScheduler.DEFAULT_FAILURE_THRESHOLD)).trim()),
+                Long.parseLong(prop.getProperty("content.circuit.openMillis", String.valueOf(RetryScheduler.DEFAULT_OPEN_MILLIS)).trim()));
+    }
+
     // Reads the local weather data file and then converts it into a WeatherEntry object.
+    // For a feed holding several stations this is the first one.
     public static WeatherEntry readFile(String filePath) throws IOException {
-        WeatherEntry weatherEntry = new WeatherEntry();
-        File file = new File(filePath);
-        if (!file.exists()) {
+        try (FeedParser feed = readFeed(filePath)) {
+            Iterator<WeatherEntry> entries = feed.iterator();
+            boolean found = entries.hasNext();
+            if (!feed.getMalformed().isEmpty()) {
+                throw new IOException(feed.getMalformed().get(0).getMessage());
+            }
+            if (!found) {
+                throw new IOException("Missing 'id' in weather data.");
+            }
+            return entries.next();
+        }
+    }
+
+    // Opens a station file or bulk feed; entries are parsed as the returned parser is iterated.
+    public static FeedParser readFeed(String filePath) throws IOException {
+        if (!new File(filePath).exists()) {
             throw new IOException("File not found: " + filePath);
         }
+        return FeedParser.open(Paths.get(filePath));
+    }
 
-        BufferedReader reader = Files.newBufferedReader(file.toPath());
-        String line;
-        while ((line = reader.readLine()) != null) {
-            String[] parts = line.split(":", 2);
-            if (parts.length != 2) continue; // Skip invalid lines
-            String key = parts[0].trim();
-            String value = parts[1].trim();
-
-            switch (key) {
-                case "id":
-                    weatherEntry.setId(value);
-                    break;
-                case "name":
-                    weatherEntry.setName(value);
-                    break;
-                case "state":
-                    weatherEntry.setState(value);
-                    break;
-                case "time_zone":
-                    weatherEntry.setTimeZone(value);
-                    break;
-                case "lat":
-                    weatherEntry.setLat(Double.parseDouble(value));
-                    break;
-                case "lon":
-                    weatherEntry.setLon(Double.parseDouble(value));
-                    break;
-                case "local_date_time":
-                    weatherEntry.setLocalDateTime(value);
-                    break;
-                case "local_date_time_full":
-                    weatherEntry.setLocalDateTimeFull(value);
-                    break;
-                case "air_temp":
-                    weatherEntry.setAirTemp(Double.parseDouble(value));
-                    break;
-                case "apparent_t":
-                    weatherEntry.setApparentT(Double.parseDouble(value));
-                    break;
-                case "cloud":
-                    weatherEntry.setCloud(value);
-                    break;
-                case "dewpt":
-                    weatherEntry.setDewpt(Double.parseDouble(value));
-                    break;
-                case "press":
-                    weatherEntry.setPress(Double.parseDouble(value));
-                    break;
-                case "rel_hum":
-                    weatherEntry.setRelHum(Integer.parseInt(value));
-                    break;
-                case "wind_dir":
-                    weatherEntry.setWindDir(value);
-                    break;
-                case "wind_spd_kmh":
-                    weatherEntry.setWindSpdKmh(Integer.parseInt(value));
-                    break;
-                case "wind_spd_kt":
-                    weatherEntry.setWindSpdKt(Integer.parseInt(value));
-                    break;
-                default:
-                    // Ignore unknown keys
-                    break;
-            }
-        }
-        reader.close();
-
-        if (weatherEntry.getId() == null || weatherEntry.getId().isEmpty()) {
-            throw new IOException("Missing 'id' in weather data.");
-        }
-
-        return weatherEntry;
+    // Hands every station in the feed to the consumer and reports any records that were skipped.
+    static void forEachEntry(String filePath, Consumer<WeatherEntry> consumer) throws IOException {
+        try (FeedParser feed = readFeed(filePath)) {
+            for (WeatherEntry entry : feed) {
+                consumer.accept(entry);
+            }
+            for (FeedParser.Malformed record : feed.getMalformed()) {
+                System.err.println("Skipped malformed record at " + record);
+            }
+        }
     }
 
     // Sends an HTTP PUT request to the server.
     public static void sendPutRequest(String serverUrl, WeatherEntry jsonData) {
-        clock.tick();
+        long lamportTime = clock.tickAndGet();
 
         // Serialize WeatherEntry to JSON
         String jsonString;
         try {
-            jsonString = objectMapper.writeValueAsString(jsonData);
+            jsonString = WeatherEntryCodec.writeString(jsonData);
         } catch (IOException e) {
             System.out.println("Failed to serialize WeatherEntry to JSON: " + e.getMessage());
             return;
         }
 
-        int maxRetries = 3;
-        int attempt = 0;
+        boolean sent = sendWithRetries(serverUrl, jsonString, lamportTime);
+        recordOutcome(serverUrl, List.of(jsonData), lamportTime, sent);
+    }
+
+    // Sends an HTTP PUT request without waiting; completes with true once the server accepted the entry.
+    public static CompletableFuture<Boolean> sendPutRequestAsync(String serverUrl, WeatherEntry jsonData) {
+        long lamportTime = clock.tickAndGet();
+        String jsonString;
+        try {
+            jsonString = WeatherEntryCodec.writeString(jsonData);
+        } catch (IOException e) {
+            System.out.println("Failed to serialize WeatherEntry to JSON: " + e.getMessage());
+            return CompletableFuture.completedFuture(false);
+        }
+        return sendWithRetriesAsync(serverUrl, jsonString, lamportTime).thenApply(sent -> {
+            recordOutcome(serverUrl, List.of(jsonData), lamportTime, sent);
+            return sent;
+        });
+    }
 
-        while (attempt <= maxRetries) {
-            try {
-                int responseCode = httpService.sendPut(serverUrl, jsonString, clock.getTime());
+    // Sends several entries to the server in one HTTP PUT, as a JSON array.
+    public static void sendBatchPutRequest(String serverUrl, List<WeatherEntry> entries) {
+        long lamportTime = clock.tickAndGet();
 
-                if (responseCode == 200 || responseCode == 201) {
-                    System.out.println("Data uploaded successfully with response code: " + responseCode);
-                    break; // Success
-                } else {
-                    System.out.println("PUT request failed with code: " + responseCode);
-                    if (attempt == maxRetries) {
-                        System.err.println("Failed to upload data after multiple attempts.");
-                        break;
-                    }
-                    System.err.println("Retrying PUT request... Attempts left: " + (maxRetries - attempt));
-                    Thread.sleep(1000); // Wait before retrying
-                }
-            } catch (IOException e) {
-                System.out.println("PUT request failed with exception: " + e.getMessage());
-                if (attempt == maxRetries) {
-                    System.err.println("Failed to upload data after multiple attempts.");
-                    break;
+        String jsonString;
+        try {
+            jsonString = WeatherEntryCodec.writeArrayString(entries);
+        } catch (IOException e) {
+            System.out.println("Failed to serialize WeatherEntry batch to JSON: " + e.getMessage());
+            return;
+        }
+
+        boolean sent = sendWithRetries(serverUrl, jsonString, lamportTime);
+        recordOutcome(serverUrl, entries, lamportTime, sent);
+    }
+
+    // Sends everything in the spool in batches, stopping at the first batch the server does not take.
+    // Returns how many updates were delivered; waits if another drain is running.
+    public static int drainSpool(String serverUrl) {
+        UploadSpool current = spool;
+        if (current == null) {
+            return 0;
+        }
+        drainLock.lock();
+        try {
+            return drain(serverUrl, current);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Starts a drain on the spool thread unless one is already running or there is nothing to send.
+    static void drainSpoolAsync(String serverUrl) {
+        UploadSpool current = spool;
+        if (current == null || current.size() == 0 || drainLock.isLocked()) {
+            return;
+        }
+        spoolDrainer.execute(() -> {
+            if (drainLock.tryLock()) {
+                try {
+                    drain(serverUrl, current);
+                } finally {
+                    drainLock.unlock();
                 }
-                System.err.println("Retrying PUT request... Attempts left: " + (maxRetries - attempt));
+            }
+        });
+    }
+
+    // Waits for a drain started by drainSpoolAsync to finish.
+    static void awaitSpoolDrain() {
+        try {
+            // The drainer runs tasks in order, so an empty task completes after every drain queued before it
+            spoolDrainer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Nothing to report for an empty task
+        }
+    }
+
+    private static int drain(String serverUrl, UploadSpool current) {
+        if (current.size() == 0) {
+            return 0;
+        }
+        try {
+            int sent = current.drain(spoolBatchSize, batch -> {
                 try {
-                    Thread.sleep(1000); // Wait before retrying
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    System.err.println("Retry interrupted.");
-                    break;
+                    return sendWithRetries(serverUrl, WeatherEntryCodec.writeArrayString(batch), clock.tickAndGet());
+                } catch (IOException e) {
+                    System.out.println("Failed to serialize WeatherEntry batch to JSON: " + e.getMessage());
+                    return false;
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                System.err.println("Retry interrupted.");
-                break;
+            });
+            if (sent > 0) {
+                System.out.println("Delivered " + sent + " spooled station update(s); " + current.size() + " still pending.");
             }
-            attempt++;
+            return sent;
+        } catch (IOException e) {
+            System.err.println("Failed to update spool journal: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // Spools entries the server did not take, or clears older spooled copies of entries it did take.
+    // A success also means the server is answering again, so anything spooled is sent along.
+    private static void recordOutcome(String serverUrl, List<WeatherEntry> entries, long lamportTime, boolean sent) {
+        UploadSpool current = spool;
+        if (current == null) {
+            return;
+        }
+        try {
+            for (WeatherEntry entry : entries) {
+                if (sent) {
+                    current.delivered(entry.getId(), lamportTime);
+                } else {
+                    current.add(entry, lamportTime);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to update spool journal: " + e.getMessage());
+            return;
+        }
+        if (sent) {
+            drainSpoolAsync(serverUrl);
+        } else {
+            System.err.println("Spooled " + entries.size() + " station update(s) for later delivery.");
+        }
+    }
+
+    // Sends a PUT body, retrying failed attempts on the shared retry scheduler, and waits for the outcome.
+    private static boolean sendWithRetries(String serverUrl, String jsonString, long lamportTime) {
+        try {
+            return sendWithRetriesAsync(serverUrl, jsonString, lamportTime).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Upload interrupted.");
+            return false;
+        } catch (ExecutionException e) {
+            return false;
         }
     }
+
+    // Sends a PUT body without blocking; no thread is held while waiting to retry.
+    // The future completes with true once the server accepted the data, false if every attempt failed.
+    static CompletableFuture<Boolean> sendWithRetriesAsync(String serverUrl, String jsonString, long lamportTime) {
+        RetryScheduler scheduler = retryScheduler;
+        return scheduler.execute(serverUrl, attempt -> {
+            if (attempt > 0) {
+                System.err.println("Retrying PUT request... Attempt " + (attempt + 1));
+            }
+            return httpService.sendPutAsync(serverUrl, jsonString, lamportTime);
+        }).handle((responseCode, error) -> {
+            if (error == null && (responseCode == 200 || responseCode == 201)) {
+                System.out.println("Data uploaded successfully with response code: " + responseCode);
+                return true;
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                System.out.println("PUT request failed with exception: " + cause.getMessage());
+            } else {
+                System.out.println("PUT request failed with code: " + responseCode);
+            }
+            System.err.println("Failed to upload data after multiple attempts.");
+            return false;
+        });
+    }
 }
@@ -0,0 +1,28 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Writes weather entries to an output stream one at a time, so memory use does not grow with the number of stations.
+// Output goes through the generator's fixed-size buffer and is flushed only when that fills or the write ends.
+public class EntryStreamWriter {
+    public static final String NDJSON_TYPE = "application/x-ndjson";
+
+    // Writes the entries as a single JSON array.
+    public void writeArray(OutputStream out, Iterable<WeatherEntry> entries) throws IOException {
+        WeatherEntryCodec.writeArray(out, entries);
+    }
+
+    // Writes the entries as newline-delimited JSON, one object per line.
+    public void writeNdjson(OutputStream out, Iterable<WeatherEntry> entries) throws IOException {
+        try (JsonGenerator generator = WeatherEntryCodec.createGenerator(out)) {
+            // Lines are terminated explicitly; drop the default space Jackson puts between root values
+            generator.setRootValueSeparator(null);
+            for (WeatherEntry entry : entries) {
+                WeatherEntryCodec.write(generator, entry);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.weatherApp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Streaming parser for station feeds in the "key:value" line format, one or many stations per file.
+// A record ends at a blank line, or where a key it already holds appears again (an id line once it has an id,
+// or the leading fields of a next record whose id is not on its first line); that line starts the next record.
+// Single-station files parse exactly as before. Files are scanned as bytes (memory-mapped when large) without splitting lines
+// into Strings; numbers are parsed straight from the bytes. Records with a missing id or a bad number are
+// skipped and reported through getMalformed() instead of throwing.
+public class FeedParser implements Iterable<WeatherEntry>, Closeable {
+    // Files at least this large are memory-mapped; smaller ones are cheaper to read in one go
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int STATE = 2;
+    private static final int TIME_ZONE = 3;
+    private static final int LAT = 4;
+    private static final int LON = 5;
+    private static final int LOCAL_DATE_TIME = 6;
+    private static final int LOCAL_DATE_TIME_FULL = 7;
+    private static final int AIR_TEMP = 8;
+    private static final int APPARENT_T = 9;
+    private static final int CLOUD = 10;
+    private static final int DEWPT = 11;
+    private static final int PRESS = 12;
+    private static final int REL_HUM = 13;
+    private static final int WIND_DIR = 14;
+    private static final int WIND_SPD_KMH = 15;
+    private static final int WIND_SPD_KT = 16;
+    private static final byte[][] KEYS = {
+            ascii("id"), ascii("name"), ascii("state"), ascii("time_zone"), ascii("lat"), ascii("lon"),
+            ascii("local_date_time"), ascii("local_date_time_full"), ascii("air_temp"), ascii("apparent_t"),
+            ascii("cloud"), ascii("dewpt"), ascii("press"), ascii("rel_hum"), ascii("wind_dir"),
+            ascii("wind_spd_kmh"), ascii("wind_spd_kt")
+    };
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final String source;
+    private ByteBuffer buffer;
+    private final int limit;
+    private int position;
+    private int line;
+    private byte[] scratch = new byte[128];
+    // First error in the record parseRecord() last read, or null, and the line its first field was on
+    private String recordError;
+    private int recordLine;
+    private final List<Malformed> malformed = new ArrayList<>();
+
+    private FeedParser(String source, ByteBuffer buffer) {
+        this.source = source;
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+    }
+
+    // Opens a feed file, memory-mapping it if it is large.
+    public static FeedParser open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Feed file too large: " + path);
+            }
+            ByteBuffer buffer;
+            if (size >= MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Keep reading until full or end of file
+                }
+                buffer.flip();
+            }
+            return new FeedParser(path.toString(), buffer);
+        }
+    }
+
+    // Parses a feed held in memory.
+    public static FeedParser of(byte[] feed) {
+        return new FeedParser("<memory>", ByteBuffer.wrap(feed));
+    }
+
+    // Returns the valid entries one at a time, parsing each only when it is asked for.
+    @Override
+    public Iterator<WeatherEntry> iterator() {
+        return new Iterator<>() {
+            private WeatherEntry next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = nextValid();
+                }
+                return next != null;
+            }
+
+            @Override
+            public WeatherEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                WeatherEntry entry = next;
+                next = null;
+                return entry;
+            }
+        };
+    }
+
+    // Reads every remaining valid entry into a list.
+    public List<WeatherEntry> readAll() {
+        List<WeatherEntry> entries = new ArrayList<>();
+        for (WeatherEntry entry : this) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    // Retrieves the records skipped so far because they were malformed.
+    public List<Malformed> getMalformed() {
+        return Collections.unmodifiableList(malformed);
+    }
+
+    // Releases the file contents.
+    @Override
+    public void close() {
+        // A mapping is unmapped once unreachable; dropping the reference is all that can be done portably
+        buffer = null;
+    }
+
+    private WeatherEntry nextValid() {
+        while (position < limit) {
+            WeatherEntry entry = new WeatherEntry();
+            if (!parseRecord(entry)) {
+                continue; // No key:value lines at all, which is not reported as a record
+            }
+            String error = recordError;
+            if (error == null && (entry.getId() == null || entry.getId().isEmpty())) {
+                error = "Missing 'id' in weather data.";
+            }
+            if (error == null) {
+                return entry;
+            }
+            malformed.add(new Malformed(source, recordLine, entry.getId(), error));
+        }
+        return null;
+    }
+
+    // Fills the entry from lines up to the end of the record and leaves the first error in recordError.
+    // Returns false if the stretch held no known key:value lines.
+    private boolean parseRecord(WeatherEntry entry) {
+        String error = null;
+        boolean sawField = false;
+        // One bit per field already set in this record
+        long seen = 0;
+        while (position < limit) {
+            int lineStart = position;
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int colon = lineStart;
+            while (colon < lineEnd && buffer.get(colon) != ':') {
+                colon++;
+            }
+            if (colon == lineEnd) {
+                // Not a key:value line; skipped like the original reader did, but a blank one closes the record
+                position = lineEnd + 1;
+                line++;
+                if (sawField && skipSpace(lineStart, lineEnd) == lineEnd) {
+                    break;
+                }
+                continue;
+            }
+
+            int keyStart = skipSpace(lineStart, colon);
+            int keyEnd = trimSpace(keyStart, colon);
+            int field = fieldOf(keyStart, keyEnd);
+            if (field >= 0 && (seen & (1L << field)) != 0) {
+                break; // Start of the next record; leave the line for it
+            }
+            position = lineEnd + 1;
+            line++;
+            if (field < 0) {
+                continue; // Ignore unknown keys
+            }
+            if (!sawField) {
+                recordLine = line;
+            }
+            sawField = true;
+            seen |= 1L << field;
+            int valueStart = skipSpace(colon + 1, lineEnd);
+            int valueEnd = trimSpace(valueStart, lineEnd);
+            String fieldError = apply(entry, field, valueStart, valueEnd);
+            if (error == null) {
+                error = fieldError;
+            }
+        }
+        recordError = error;
+        return sawField;
+    }
+
+    private String apply(WeatherEntry entry, int field, int start, int end) {
+        switch (field) {
+            case ID:
+                entry.setId(string(start, end));
+                return null;
+            case NAME:
+                entry.setName(string(start, end));
+                return null;
+            case STATE:
+                entry.setState(string(start, end));
+                return null;
+            case TIME_ZONE:
+                entry.setTimeZone(string(start, end));
+                return null;
+            case LOCAL_DATE_TIME:
+                entry.setLocalDateTime(string(start, end));
+                return null;
+            case LOCAL_DATE_TIME_FULL:
+                entry.setLocalDateTimeFull(string(start, end));
+                return null;
+            case CLOUD:
+                entry.setCloud(string(start, end));
+                return null;
+            case WIND_DIR:
+                entry.setWindDir(string(start, end));
+                return null;
+            case REL_HUM:
+            case WIND_SPD_KMH:
+            case WIND_SPD_KT: {
+                long value = parseInt(start, end);
+                if (value == Long.MIN_VALUE) {
+                    return invalid(field, start, end);
+                }
+                if (field == REL_HUM) entry.setRelHum((int) value);
+                else if (field == WIND_SPD_KMH) entry.setWindSpdKmh((int) value);
+                else entry.setWindSpdKt((int) value);
+                return null;
+            }
+            default: {
+                double value = parseDouble(start, end);
+                if (Double.isNaN(value)) {
+                    return invalid(field, start, end);
+                }
+                if (field == LAT) entry.setLat(value);
+                else if (field == LON) entry.setLon(value);
+                else if (field == AIR_TEMP) entry.setAirTemp(value);
+                else if (field == APPARENT_T) entry.setApparentT(value);
+                else if (field == DEWPT) entry.setDewpt(value);
+                else entry.setPress(value);
+                return null;
+            }
+        }
+    }
+
+    private String invalid(int field, int start, int end) {
+        return "Invalid value for " + new String(KEYS[field], StandardCharsets.US_ASCII) + ": '" + string(start, end) + "'";
+    }
+
+    private int fieldOf(int start, int end) {
+        int length = end - start;
+        for (int field = 0; field < KEYS.length; field++) {
+            byte[] key = KEYS[field];
+            if (key.length != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && buffer.get(start + i) == key[i]) {
+                i++;
+            }
+            if (i == length) {
+                return field;
+            }
+        }
+        return -1;
+    }
+
+    // Parses an optionally signed decimal integer that fits in an int. Returns Long.MIN_VALUE if malformed.
+    private long parseInt(int start, int end) {
+        if (start == end) {
+            return Long.MIN_VALUE;
+        }
+        boolean negative = false;
+        int i = start;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (i == end) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    // Parses a decimal number. Plain forms like -12.375 are read directly from the bytes, which is exact for up
+    // to 15 significant digits; anything longer or with an exponent goes through Double.parseDouble.
+    // Returns NaN if malformed.
+    private double parseDouble(int start, int end) {
+        if (start == end) {
+            return Double.NaN;
+        }
+        int i = start;
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean dot = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (dot) {
+                    fractionDigits++;
+                }
+                if (digits > 15) {
+                    return parseDoubleSlow(start, end);
+                }
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else if (b == 'e' || b == 'E') {
+                return parseDoubleSlow(start, end);
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        double value = mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlow(int start, int end) {
+        try {
+            return Double.parseDouble(string(start, end));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private String string(int start, int end) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int skipSpace(int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimSpace(int start, int end) {
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static byte[] ascii(String key) {
+        return key.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // A record that was skipped, with the line it started on and the first problem found.
+    public static class Malformed {
+        private final String source;
+        private final int line;
+        private final String id;
+        private final String message;
+
+        Malformed(String source, int line, String id, String message) {
+            this.source = source;
+            this.line = line;
+            this.id = id;
+            this.message = message;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return source + ":" + line + (id != null ? " (" + id + ")" : "") + ": " + message;
+        }
+    }
+}
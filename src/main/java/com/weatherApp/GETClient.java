@@ -1,25 +1,33 @@
 package com.weatherApp;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.io.IOException;
 
 public class GETClient {
     private static LamportClock clock = new LamportClock();
-    private static ObjectMapper objectMapper = new ObjectMapper();
+    // Last parsed response and its ETag per endpoint, reused when the server answers 304
+    private static final Map<String, CachedResponse> responseCache = new ConcurrentHashMap<>();
 
     public static void main(String[] args) {
         if (args.length < 1) {
-            System.out.println("Usage: java GETClient <server_url> [station_id]");
+            System.out.println("Usage: java GETClient <server_url> [station_id[,station_id...] | --mirror [poll_millis]]");
             return;
         }
 
         String serverUrl = parseServerUrl(args[0]);
+        if (args.length > 1 && args[1].equals("--mirror")) {
+            long pollMillis = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+            runMirror(serverUrl, pollMillis);
+            return;
+        }
         String stationId = args.length > 1 ? args[1] : null;
 
         try {
@@ -29,6 +37,28 @@ public class GETClient {
         }
     }
 
+    // Keeps a local mirror of all stations, fetching only what changed since the previous poll.
+    static void runMirror(String serverUrl, long pollMillis) {
+        StationMirror mirror = new StationMirror(serverUrl, clock);
+        while (true) {
+            try {
+                List<WeatherEntry> changed = mirror.poll();
+                if (!changed.isEmpty()) {
+                    System.out.println(changed.size() + " station(s) changed, " + mirror.getStations().size() + " mirrored:");
+                    displayEntries(changed);
+                }
+            } catch (IOException e) {
+                System.err.println("Mirror poll failed: " + e.getMessage());
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
     static String parseServerUrl(String input) {
         if (!input.startsWith("http://") && !input.startsWith("https://")) {
             input = "http://" + input;
@@ -39,25 +69,35 @@ public class GETClient {
     // Sends an HTTP GET request to the server and displays the weather.
 
     static void sendGetRequest(String serverUrl, String stationId) throws IOException {
-        clock.tick();
-        String endpoint = serverUrl + "/weather.json" + (stationId != null ? "?id=" + stationId : "");
+        long lamportTime = clock.tickAndGet();
+        // A comma-separated list of ids is looked up on the server in one request
+        String endpoint = serverUrl + "/weather.json"
+                + (stationId != null ? "?id=" + URLEncoder.encode(stationId, StandardCharsets.UTF_8) : "");
         URL url = new URL(endpoint);
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
         conn.setRequestMethod("GET");
-        conn.setRequestProperty("Lamport-Time", String.valueOf(clock.getTime()));
+        conn.setRequestProperty("Lamport-Time", String.valueOf(lamportTime));
+        CachedResponse cached = responseCache.get(endpoint);
+        if (cached != null) {
+            conn.setRequestProperty("If-None-Match", cached.etag);
+        }
 
         int responseCode = conn.getResponseCode();
-        if (responseCode == 200) {
-            String responseLamportTime = conn.getHeaderField("Lamport-Time");
-            if (responseLamportTime != null) {
-                try {
-                    int receivedTime = Integer.parseInt(responseLamportTime);
-                    clock.update(receivedTime);
-                } catch (NumberFormatException e) {
-                    System.err.println("Invalid Lamport-Time header in response.");
-                }
+        // Every response carries the server's clock, including a 304 with no body
+        String responseLamportTime = conn.getHeaderField("Lamport-Time");
+        if (responseLamportTime != null) {
+            try {
+                long receivedTime = Long.parseLong(responseLamportTime);
+                clock.update(receivedTime);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid Lamport-Time header in response.");
             }
+        }
 
+        if (responseCode == 304 && cached != null) {
+            // Unchanged since the last poll: nothing was sent, show what we already parsed
+            displayEntries(cached.entries);
+        } else if (responseCode == 200) {
             BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
             StringBuilder jsonResponseBuilder = new StringBuilder();
             String line;
@@ -67,39 +107,62 @@ public class GETClient {
             in.close();
 
             String jsonResponse = jsonResponseBuilder.toString();
-            displayData(jsonResponse);
+            List<WeatherEntry> entries = displayData(jsonResponse);
+            String etag = conn.getHeaderField("ETag");
+            if (etag != null && entries != null) {
+                responseCache.put(endpoint, new CachedResponse(etag, entries));
+            } else {
+                responseCache.remove(endpoint);
+            }
         } else if (responseCode == 204) {
             System.out.println("No Content.");
         } else {
             System.out.println("GET request failed with code: " + responseCode);
         }
     }
-// Parses and displays the weather data.
-    static void displayData(String jsonResponse) {
+// Parses and displays the weather data. Returns the parsed entries, or null if the JSON was invalid.
+    static List<WeatherEntry> displayData(String jsonResponse) {
         try {
-            List<WeatherEntry> entries = objectMapper.readValue(jsonResponse, new TypeReference<List<WeatherEntry>>() {});
-            for (WeatherEntry entry : entries) {
-                System.out.println("ID: " + entry.getId());
-                System.out.println("Name: " + entry.getName());
-                System.out.println("State: " + entry.getState());
-                System.out.println("Time Zone: " + entry.getTimeZone());
-                System.out.println("Latitude: " + entry.getLat());
-                System.out.println("Longitude: " + entry.getLon());
-                System.out.println("Local Date Time: " + entry.getLocalDateTime());
-                System.out.println("Local Date Time Full: " + entry.getLocalDateTimeFull());
-                System.out.println("Air Temperature: " + entry.getAirTemp());
-                System.out.println("Apparent Temperature: " + entry.getApparentT());
-                System.out.println("Cloud: " + entry.getCloud());
-                System.out.println("Dew Point: " + entry.getDewpt());
-                System.out.println("Pressure: " + entry.getPress());
-                System.out.println("Relative Humidity: " + entry.getRelHum());
-                System.out.println("Wind Direction: " + entry.getWindDir());
-                System.out.println("Wind Speed (KM/H): " + entry.getWindSpdKmh());
-                System.out.println("Wind Speed (KT): " + entry.getWindSpdKt());
-                System.out.println("----------");
-            }
+            List<WeatherEntry> entries = WeatherEntryCodec.readList(jsonResponse);
+            displayEntries(entries);
+            return entries;
         } catch (IOException e) {
             System.err.println("Failed to parse JSON response: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Prints each weather entry.
+    static void displayEntries(List<WeatherEntry> entries) {
+        for (WeatherEntry entry : entries) {
+            System.out.println("ID: " + entry.getId());
+            System.out.println("Name: " + entry.getName());
+            System.out.println("State: " + entry.getState());
+            System.out.println("Time Zone: " + entry.getTimeZone());
+            System.out.println("Latitude: " + entry.getLat());
+            System.out.println("Longitude: " + entry.getLon());
+            System.out.println("Local Date Time: " + entry.getLocalDateTime());
+            System.out.println("Local Date Time Full: " + entry.getLocalDateTimeFull());
+            System.out.println("Air Temperature: " + entry.getAirTemp());
+            System.out.println("Apparent Temperature: " + entry.getApparentT());
+            System.out.println("Cloud: " + entry.getCloud());
+            System.out.println("Dew Point: " + entry.getDewpt());
+            System.out.println("Pressure: " + entry.getPress());
+            System.out.println("Relative Humidity: " + entry.getRelHum());
+            System.out.println("Wind Direction: " + entry.getWindDir());
+            System.out.println("Wind Speed (KM/H): " + entry.getWindSpdKmh());
+            System.out.println("Wind Speed (KT): " + entry.getWindSpdKt());
+            System.out.println("----------");
+        }
+    }
+
+    private static class CachedResponse {
+        final String etag;
+        final List<WeatherEntry> entries;
+
+        CachedResponse(String etag, List<WeatherEntry> entries) {
+            this.etag = etag;
+            this.entries = entries;
         }
     }
 }
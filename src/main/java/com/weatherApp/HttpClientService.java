@@ -0,0 +1,88 @@
+package com.weatherApp;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+// HttpService on java.net.http.HttpClient. The client keeps connections alive and reuses them across
+// calls, and sendPutAsync lets one content server keep many uploads in flight.
+public class HttpClientService implements HttpService {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+
+    public HttpClientService() {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build());
+    }
+
+    public HttpClientService(HttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public int sendPut(String serverUrl, String jsonData, long lamportTime) throws IOException {
+        try {
+            return sendPutAsync(serverUrl, jsonData, lamportTime).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for PUT response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> sendPutAsync(String serverUrl, String jsonData, long lamportTime) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(serverUrl + "/weather.json"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .header("Lamport-Time", String.valueOf(lamportTime))
+                    .PUT(HttpRequest.BodyPublishers.ofString(jsonData, StandardCharsets.UTF_8))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new IOException("Invalid server URL: " + serverUrl, e));
+        }
+        return sendForStatus(request);
+    }
+
+    // Sends a GET for /weather.json plus an optional query string (without the '?'); completes with the response code.
+    public CompletableFuture<Integer> sendGetAsync(String serverUrl, String query, long lamportTime) {
+        HttpRequest request;
+        try {
+            String path = query == null || query.isEmpty() ? "/weather.json" : "/weather.json?" + query;
+            request = HttpRequest.newBuilder(URI.create(serverUrl + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Lamport-Time", String.valueOf(lamportTime))
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new IOException("Invalid server URL: " + serverUrl, e));
+        }
+        return sendForStatus(request);
+    }
+
+    private CompletableFuture<Integer> sendForStatus(HttpRequest request) {
+        // The body is read to the end and dropped so the connection goes back to the pool
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode)
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    return CompletableFuture.failedFuture(cause instanceof IOException ? cause : new IOException(cause));
+                });
+    }
+}
@@ -1,8 +1,19 @@
 package com.weatherApp;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 public interface HttpService {
     // Sends HTTP PUT request to the specified URL with the JSON data and Lamport time.
-    int sendPut(String url, String jsonData, int lamportTime) throws IOException;
+    int sendPut(String url, String jsonData, long lamportTime) throws IOException;
+
+    // Sends the PUT without blocking the caller; the future completes with the response code.
+    // Implementations without their own async I/O run the blocking call and hand back a completed future.
+    default CompletableFuture<Integer> sendPutAsync(String url, String jsonData, long lamportTime) {
+        try {
+            return CompletableFuture.completedFuture(sendPut(url, jsonData, lamportTime));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
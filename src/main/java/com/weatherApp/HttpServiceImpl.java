@@ -1,16 +1,15 @@
 package com.weatherApp;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 
 public class HttpServiceImpl implements HttpService {
-    private static ObjectMapper objectMapper = new ObjectMapper();
-
     @Override
-    public int sendPut(String serverUrl, String jsonData, int lamportTime) throws IOException {
+    public int sendPut(String serverUrl, String jsonData, long lamportTime) throws IOException {
         String endpoint = serverUrl + "/weather.json";
         URL url = new URL(endpoint);
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
@@ -19,11 +18,17 @@ public class HttpServiceImpl implements HttpService {
         conn.setRequestProperty("Lamport-Time", String.valueOf(lamportTime));
         conn.setDoOutput(true);
 
-        OutputStream os = conn.getOutputStream();
-        os.write(jsonData.getBytes());
-        os.flush();
-        os.close();
+        try (OutputStream os = conn.getOutputStream()) {
+            os.write(jsonData.getBytes(StandardCharsets.UTF_8));
+        }
 
-        return conn.getResponseCode();
+        int responseCode = conn.getResponseCode();
+        // Drain and close the response so HttpURLConnection can reuse the keep-alive connection
+        try (InputStream in = responseCode >= 400 ? conn.getErrorStream() : conn.getInputStream()) {
+            if (in != null) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+        return responseCode;
     }
 }
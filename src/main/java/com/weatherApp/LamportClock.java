@@ -1,24 +1,51 @@
 package com.weatherApp;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free Lamport clock. The tick-and-read and update-and-read operations return a stamp no other caller receives.
 public class LamportClock {
-    private int time;
+    private final AtomicLong time;
 
     public LamportClock() {
-        this.time = 0;
+        this.time = new AtomicLong();
     }
 
     // Increments the local Lamport clock.
-    public synchronized void tick() {
-        time++;
+    public void tick() {
+        time.incrementAndGet();
+    }
+
+    // Increments the local Lamport clock and returns the new, unique time.
+    public long tickAndGet() {
+        return time.incrementAndGet();
     }
 
     // Updates the local Lamport clock based on the received timestamp.
-    public synchronized void update(int receivedTime) {
-        time = Math.max(time, receivedTime) + 1;
+    public void update(long receivedTime) {
+        updateAndGet(receivedTime);
+    }
+
+    // Updates the local Lamport clock based on the received timestamp and returns the new, unique time.
+    public long updateAndGet(long receivedTime) {
+        long current = time.get();
+        if (receivedTime <= current) {
+            // The clock only moves forward, so a plain increment is already past receivedTime; no CAS retries
+            return time.incrementAndGet();
+        }
+        while (true) {
+            long next = Math.max(current, receivedTime) + 1;
+            if (time.compareAndSet(current, next)) {
+                return next;
+            }
+            current = time.get();
+            if (receivedTime <= current) {
+                return time.incrementAndGet();
+            }
+        }
     }
 
     // Retrieves the current Lamport clock value.
-    public synchronized int getTime() {
-        return time;
+    public long getTime() {
+        return time.get();
     }
 }
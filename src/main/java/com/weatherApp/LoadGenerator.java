@@ -0,0 +1,394 @@
+package com.weatherApp;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Simulates many content servers and GET clients against one aggregation server and reports throughput,
+// errors and latency percentiles. Content server s owns stations LOAD<s>-0 .. LOAD<s>-(M-1) and cycles through them.
+// OPEN mode sends on a fixed schedule whatever the responses do, and measures latency from each request's
+// scheduled time, so a stalled server shows up as latency instead of as fewer requests (coordinated omission).
+// Requests due while maxInFlight are outstanding wait in a queue and go out as slots free up; none are dropped.
+// CLOSED mode is the one-request-at-a-time client: each simulated client waits for its response before the next.
+public class LoadGenerator {
+    public enum Mode { OPEN, CLOSED }
+
+    private final String serverUrl;
+    private final HttpClientService http;
+    private final int contentServers;
+    private final int stationsPerServer;
+    private final double putRate;
+    private final int readers;
+    private final double getRate;
+    private final Mode mode;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    // Requests waiting for an in-flight slot, oldest first
+    private final ConcurrentLinkedQueue<Pending> backlog = new ConcurrentLinkedQueue<>();
+    // Pre-serialized station bodies, [content server][station], so the generator spends no time on JSON
+    private final String[][] bodies;
+    // Each simulated client has its own Lamport clock, as separate processes would
+    private final LamportClock[] serverClocks;
+    private final LamportClock[] readerClocks;
+    private final Stats puts = new Stats("PUT");
+    private final Stats gets = new Stats("GET");
+    private long windowNanos;
+
+    // putRate is PUTs per second per content server, getRate GETs per second per reader.
+    public LoadGenerator(String serverUrl, HttpClientService http, int contentServers, int stationsPerServer,
+                         double putRate, int readers, double getRate, Mode mode, int maxInFlight) {
+        this.serverUrl = serverUrl;
+        this.http = http;
+        this.contentServers = Math.max(0, contentServers);
+        this.stationsPerServer = Math.max(1, stationsPerServer);
+        this.putRate = putRate;
+        this.readers = Math.max(0, readers);
+        this.getRate = getRate;
+        this.mode = mode;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.bodies = createBodies(this.contentServers, this.stationsPerServer);
+        this.serverClocks = createClocks(this.contentServers);
+        this.readerClocks = createClocks(this.readers);
+    }
+
+    public static void main(String[] args) {
+        ServerConfig config = ServerConfig.load("load.");
+        String serverUrl = GETClient.parseServerUrl(args.length > 0 ? args[0] : config.getString("server.url", "http://localhost:4567"));
+        LoadGenerator generator = new LoadGenerator(serverUrl, new HttpClientService(),
+                config.getInt("load.contentServers", 100),
+                config.getInt("load.stationsPerServer", 10),
+                config.getDouble("load.putRate", 1.0),
+                config.getInt("load.readers", 10),
+                config.getDouble("load.getRate", 1.0),
+                "closed".equalsIgnoreCase(config.getString("load.mode", "open")) ? Mode.CLOSED : Mode.OPEN,
+                config.getInt("load.maxInFlight", 4096));
+        long durationMillis = TimeUnit.SECONDS.toMillis(config.getLong("load.durationSeconds", 30));
+        System.out.println(generator.describe(durationMillis));
+        try {
+            generator.run(durationMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        generator.report(System.out);
+        System.exit(0);
+    }
+
+    // Generates load for the given time, then waits for outstanding responses before returning.
+    public void run(long durationMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        if (mode == Mode.OPEN) {
+            Thread putPacer = new Thread(() -> pace(start, end, contentServers * putRate, puts, this::sendPut), "load-put");
+            Thread getPacer = new Thread(() -> pace(start, end, readers * getRate, gets, this::sendGet), "load-get");
+            putPacer.start();
+            getPacer.start();
+            putPacer.join();
+            getPacer.join();
+        } else {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+            Random random = new Random();
+            for (int s = 0; s < contentServers && putRate > 0; s++) {
+                int server = s;
+                scheduler.schedule(() -> closedLoop(scheduler, end, putRate, puts, server, new long[1], this::sendPut),
+                        (long) (random.nextDouble() * 1e9 / putRate), TimeUnit.NANOSECONDS);
+            }
+            for (int r = 0; r < readers && getRate > 0; r++) {
+                int reader = r;
+                scheduler.schedule(() -> closedLoop(scheduler, end, getRate, gets, reader, new long[1], this::sendGet),
+                        (long) (random.nextDouble() * 1e9 / getRate), TimeUnit.NANOSECONDS);
+            }
+            TimeUnit.NANOSECONDS.sleep(end - System.nanoTime());
+            scheduler.shutdown();
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        windowNanos = System.nanoTime() - start;
+        // Every request holds a permit until it completes and hands it to the next queued request, so holding all
+        // of them with an empty backlog means everything was answered. Keep waiting while responses still arrive
+        long completed = -1;
+        while (true) {
+            if (inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+                boolean drained = backlog.isEmpty();
+                inFlight.release(maxInFlight);
+                if (drained) {
+                    return;
+                }
+                drainBacklog();
+                continue;
+            }
+            long now = puts.getLatency().getCount() + gets.getLatency().getCount();
+            if (now == completed) {
+                return;
+            }
+            completed = now;
+        }
+    }
+
+    public Stats getPuts() {
+        return puts;
+    }
+
+    public Stats getGets() {
+        return gets;
+    }
+
+    // Retrieves a one-line summary of the configured load.
+    public String describe(long durationMillis) {
+        return String.format(Locale.ROOT,
+                "%s loop against %s for %d s: %d content servers x %d stations at %.2f PUT/s each, %d readers at %.2f GET/s each",
+                mode.name().toLowerCase(Locale.ROOT), serverUrl, TimeUnit.MILLISECONDS.toSeconds(durationMillis),
+                contentServers, stationsPerServer, putRate, readers, getRate);
+    }
+
+    // Prints throughput, error counts and latency percentiles for PUTs and GETs.
+    public void report(PrintStream out) {
+        double seconds = windowNanos / 1e9;
+        for (Stats stats : new Stats[]{puts, gets}) {
+            if (stats.getSent() == 0) {
+                continue;
+            }
+            LatencyHistogram latency = stats.getLatency();
+            out.printf(Locale.ROOT, "%s  sent %d  ok %d  http errors %d  failures %d  queued %d  error rate %.2f%%  throughput %.1f/s%n",
+                    stats.name, stats.getSent(), stats.getSucceeded(), stats.getHttpErrors(), stats.getFailures(),
+                    stats.getQueued(), stats.getErrorRate() * 100, seconds > 0 ? stats.getSucceeded() / seconds : 0);
+            out.printf(Locale.ROOT, "%s  latency ms  mean %.2f  p50 %.2f  p90 %.2f  p99 %.2f  p999 %.2f  max %.2f%n",
+                    stats.name, latency.getMeanNanos() / 1e6, latency.getValueAtQuantile(0.5) / 1e6,
+                    latency.getValueAtQuantile(0.9) / 1e6, latency.getValueAtQuantile(0.99) / 1e6,
+                    latency.getValueAtQuantile(0.999) / 1e6, latency.getMaxNanos() / 1e6);
+        }
+    }
+
+    // Sends request number sequence for a client, or in open mode (client -1) for the client the sequence picks.
+    private interface Sender {
+        CompletableFuture<Integer> send(long sequence, int client);
+    }
+
+    // Open loop: request i is due at start + i / rate. A late pacer sends immediately and the delay counts as latency.
+    private void pace(long start, long end, double rate, Stats stats, Sender sender) {
+        if (rate <= 0) {
+            return;
+        }
+        double intervalNanos = 1e9 / rate;
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended - end >= 0) {
+                return;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            issue(stats, intended, sender, i, -1);
+        }
+    }
+
+    // Closed loop for one client: send, wait for the response, then wait out the rest of the interval.
+    private void closedLoop(ScheduledExecutorService scheduler, long end, double rate, Stats stats, int client,
+                            long[] sequence, Sender sender) {
+        long sent = System.nanoTime();
+        if (sent - end >= 0) {
+            return;
+        }
+        long intervalNanos = (long) (1e9 / rate);
+        issue(stats, sent, sender, sequence[0]++, client).whenComplete((status, e) -> {
+            long delay = Math.max(0, intervalNanos - (System.nanoTime() - sent));
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(() -> closedLoop(scheduler, end, rate, stats, client, sequence, sender),
+                        delay, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    // Sends one request now, or queues it if maxInFlight are already outstanding. Either way its latency is
+    // recorded against startNanos, so time spent waiting for a slot counts. Completes with the response status.
+    private CompletableFuture<Integer> issue(Stats stats, long startNanos, Sender sender, long sequence, int client) {
+        Pending request = new Pending(stats, startNanos, sender, sequence, client);
+        if (inFlight.tryAcquire()) {
+            dispatch(request);
+        } else {
+            stats.queued.incrementAndGet();
+            backlog.add(request);
+            // A slot may have been freed between the failed acquire and the add
+            drainBacklog();
+        }
+        return request.result;
+    }
+
+    // Sends a request that already holds a permit.
+    private void dispatch(Pending request) {
+        request.stats.sent.incrementAndGet();
+        CompletableFuture<Integer> response;
+        try {
+            response = request.sender.send(request.sequence, request.client);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((status, e) -> {
+            // Recorded before the permit moves on, so run() sees every outcome once it holds all permits
+            request.stats.record(request.startNanos, status, e);
+            Pending next = backlog.poll();
+            if (next != null) {
+                // The permit passes straight to the oldest queued request
+                dispatch(next);
+            } else {
+                inFlight.release();
+                drainBacklog();
+            }
+            if (e != null) {
+                request.result.completeExceptionally(e);
+            } else {
+                request.result.complete(status);
+            }
+        });
+    }
+
+    // Sends queued requests while permits are free.
+    private void drainBacklog() {
+        while (!backlog.isEmpty() && inFlight.tryAcquire()) {
+            Pending next = backlog.poll();
+            if (next == null) {
+                inFlight.release();
+                return;
+            }
+            dispatch(next);
+        }
+    }
+
+    // Sends the next station of a content server; in open mode the sequence number picks the server.
+    private CompletableFuture<Integer> sendPut(long sequence, int client) {
+        int server = client >= 0 ? client : (int) (sequence % contentServers);
+        int station = (int) ((client >= 0 ? sequence : sequence / contentServers) % stationsPerServer);
+        return http.sendPutAsync(serverUrl, bodies[server][station], serverClocks[server].tickAndGet());
+    }
+
+    private CompletableFuture<Integer> sendGet(long sequence, int client) {
+        int reader = client >= 0 ? client : (int) (sequence % readers);
+        return http.sendGetAsync(serverUrl, null, readerClocks[reader].tickAndGet());
+    }
+
+    private static String[][] createBodies(int servers, int stations) {
+        Random random = new Random(42);
+        String[][] bodies = new String[servers][stations];
+        try {
+            for (int s = 0; s < servers; s++) {
+                for (int i = 0; i < stations; i++) {
+                    WeatherEntry entry = new WeatherEntry();
+                    entry.setId("LOAD" + s + "-" + i);
+                    entry.setName("Load station " + s + "-" + i);
+                    entry.setState("SA");
+                    entry.setTimeZone("CST");
+                    entry.setLat(-10.0 - random.nextDouble() * 33.0);
+                    entry.setLon(113.0 + random.nextDouble() * 40.0);
+                    entry.setLocalDateTime("15/04:00pm");
+                    entry.setLocalDateTimeFull("20230715160000");
+                    entry.setAirTemp(Math.round(random.nextDouble() * 400) / 10.0);
+                    entry.setApparentT(Math.round(random.nextDouble() * 400) / 10.0);
+                    entry.setCloud("Partly cloudy");
+                    entry.setDewpt(Math.round(random.nextDouble() * 200) / 10.0);
+                    entry.setPress(Math.round(9900 + random.nextDouble() * 400) / 10.0);
+                    entry.setRelHum(random.nextInt(101));
+                    entry.setWindDir("S");
+                    entry.setWindSpdKmh(random.nextInt(80));
+                    entry.setWindSpdKt(entry.getWindSpdKmh() * 54 / 100);
+                    bodies[s][i] = WeatherEntryCodec.writeString(entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize load station", e);
+        }
+        return bodies;
+    }
+
+    private static LamportClock[] createClocks(int count) {
+        LamportClock[] clocks = new LamportClock[count];
+        for (int i = 0; i < count; i++) {
+            clocks[i] = new LamportClock();
+        }
+        return clocks;
+    }
+
+    // A request due to be sent, with the time its latency is measured from.
+    private static class Pending {
+        final Stats stats;
+        final long startNanos;
+        final Sender sender;
+        final long sequence;
+        final int client;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        Pending(Stats stats, long startNanos, Sender sender, long sequence, int client) {
+            this.stats = stats;
+            this.startNanos = startNanos;
+            this.sender = sender;
+            this.sequence = sequence;
+            this.client = client;
+        }
+    }
+
+    // Outcome counts and latencies for one kind of request.
+    public static class Stats {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong httpErrors = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong queued = new AtomicLong();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        // Records a response (status below 400 counts as success) or a failure to get one.
+        void record(long startNanos, Integer status, Throwable error) {
+            latency.recordSince(startNanos);
+            if (error != null || status == null) {
+                failures.incrementAndGet();
+            } else if (status >= 400) {
+                httpErrors.incrementAndGet();
+            } else {
+                succeeded.incrementAndGet();
+            }
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getSent() {
+            return sent.get();
+        }
+
+        public long getSucceeded() {
+            return succeeded.get();
+        }
+
+        public long getHttpErrors() {
+            return httpErrors.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        // Retrieves how many requests had to wait for an in-flight slot before being sent.
+        public long getQueued() {
+            return queued.get();
+        }
+
+        // Retrieves the share of sent requests that did not succeed.
+        public double getErrorRate() {
+            long attempted = sent.get();
+            return attempted == 0 ? 0 : (double) (httpErrors.get() + failures.get()) / attempted;
+        }
+    }
+}
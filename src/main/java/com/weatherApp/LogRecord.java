@@ -0,0 +1,108 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+// A single update to the data store, as written to the write-ahead log.
+public class LogRecord {
+    public static final String PUT = "put";
+    public static final String REMOVE = "remove";
+    private static final SerializedString OP_FIELD = new SerializedString("op");
+    private static final SerializedString ID_FIELD = new SerializedString("id");
+    private static final SerializedString ENTRY_FIELD = new SerializedString("entry");
+
+    private String op;
+    private String id;
+    private WeatherEntry entry;
+
+    public LogRecord() {
+    }
+
+    private LogRecord(String op, String id, WeatherEntry entry) {
+        this.op = op;
+        this.id = id;
+        this.entry = entry;
+    }
+
+    // Creates a record that inserts or replaces the entry for its station.
+    public static LogRecord put(WeatherEntry entry) {
+        return new LogRecord(PUT, entry.getId(), entry);
+    }
+
+    // Creates a record that removes the entry for the given station.
+    public static LogRecord remove(String id) {
+        return new LogRecord(REMOVE, id, null);
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public WeatherEntry getEntry() {
+        return entry;
+    }
+
+    public boolean isPut() {
+        return PUT.equals(op);
+    }
+
+    // Encodes the record as one line of the log, omitting null fields: {"op":..,"id":..,"entry":{..}}.
+    byte[] toJson() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generator = WeatherEntryCodec.getFactory().createGenerator(bytes)) {
+            generator.writeStartObject();
+            if (op != null) {
+                generator.writeFieldName(OP_FIELD);
+                generator.writeString(op);
+            }
+            if (id != null) {
+                generator.writeFieldName(ID_FIELD);
+                generator.writeString(id);
+            }
+            if (entry != null) {
+                generator.writeFieldName(ENTRY_FIELD);
+                WeatherEntryCodec.write(generator, entry);
+            }
+            generator.writeEndObject();
+        }
+        return bytes.toByteArray();
+    }
+
+    // Decodes one line of the log written by toJson().
+    static LogRecord fromJson(String line) throws IOException {
+        LogRecord record = new LogRecord();
+        try (JsonParser parser = WeatherEntryCodec.getFactory().createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a log record object");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("entry".equals(field)) {
+                    record.entry = WeatherEntryCodec.read(parser);
+                } else if ("op".equals(field)) {
+                    record.op = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else if ("id".equals(field)) {
+                    record.id = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else {
+                    throw new JsonParseException(parser, "Unrecognized field \"" + field + "\" (class com.weatherApp.LogRecord)");
+                }
+            }
+            if (token != JsonToken.END_OBJECT) {
+                throw new JsonParseException(parser, "Unexpected end-of-input: expected close marker for Object");
+            }
+        }
+        return record;
+    }
+}
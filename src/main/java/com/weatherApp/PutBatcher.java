@@ -0,0 +1,96 @@
+package com.weatherApp;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Coalesces station updates submitted within a short window into one batch upload.
+// A station updated twice inside the window is sent once, with its latest entry.
+public class PutBatcher implements Closeable {
+    private final long windowMillis;
+    private final int maxEntries;
+    private final Consumer<List<WeatherEntry>> sender;
+    private final ScheduledThreadPoolExecutor flusher;
+    private Map<String, WeatherEntry> pending = new LinkedHashMap<>();
+    private boolean closed;
+
+    public PutBatcher(long windowMillis, int maxEntries, Consumer<List<WeatherEntry>> sender) {
+        this.windowMillis = windowMillis;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.sender = sender;
+        this.flusher = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "put-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // close() flushes explicitly, so window timers still waiting then can be dropped
+        this.flusher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    // Queues an entry; the batch goes out when the window closes or maxEntries stations are waiting.
+    public void submit(WeatherEntry entry) {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Batcher is closed");
+            }
+            boolean first = pending.isEmpty();
+            pending.put(entry.getId(), entry);
+            if (pending.size() >= maxEntries) {
+                // Take the full batch now so later submits start a new one
+                List<WeatherEntry> batch = drain();
+                flusher.execute(() -> send(batch));
+            } else if (first) {
+                flusher.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Sends whatever is pending now. Runs on the flusher thread, so batches go out one at a time and in order.
+    private void flush() {
+        List<WeatherEntry> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        }
+        send(batch);
+    }
+
+    private List<WeatherEntry> drain() {
+        List<WeatherEntry> batch = new ArrayList<>(pending.values());
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void send(List<WeatherEntry> batch) {
+        try {
+            sender.accept(batch);
+        } catch (RuntimeException e) {
+            System.err.println("Batch upload failed: " + e.getMessage());
+        }
+    }
+
+    // Sends any pending entries and waits for uploads already queued to finish.
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.execute(this::flush);
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
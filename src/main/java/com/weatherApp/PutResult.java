@@ -0,0 +1,46 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// Outcome of one entry in a batch PUT, reported back in request order.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PutResult {
+    @JsonProperty("index")
+    private int index;
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("status")
+    private int status;
+
+    @JsonProperty("error")
+    private String error;
+
+    public PutResult() {
+    }
+
+    public PutResult(int index, String id, int status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
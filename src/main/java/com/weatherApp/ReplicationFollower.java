@@ -0,0 +1,205 @@
+package com.weatherApp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Keeps a backup's data store in step with the primary by shipping its update log.
+// Each poll asks GET /replication/log for the entries stamped after the last high-water mark and applies them in
+// Lamport order with their original stamps, so the backup's own since-queries and clock agree with the primary's.
+// Every answer from the primary counts as a heartbeat. The backup promotes itself only after several polls in a row
+// could not reach the primary at all and promoteAfterMillis has passed without a heartbeat. There is no fencing:
+// a backup cut off from a primary that is still running promotes all the same.
+public class ReplicationFollower {
+    // Polls in a row that must fail to reach the primary before an automatic promotion
+    static final int UNREACHABLE_POLLS_TO_PROMOTE = 3;
+
+    private final String primaryUrl;
+    private final WeatherDataStore dataStore;
+    private final LamportClock clock;
+    private final long pollMillis;
+    private final long promoteAfterMillis;
+    private final Runnable onPromote;
+    private ScheduledExecutorService poller;
+    private volatile long highWater = -1;
+    private volatile long lastContactMillis = System.currentTimeMillis();
+    private volatile boolean promoted;
+    // Only touched by the polling thread
+    private int unreachablePolls;
+    private boolean answered;
+
+    // promoteAfterMillis of 0 means the backup is only promoted by calling promote().
+    public ReplicationFollower(String primaryUrl, WeatherDataStore dataStore, LamportClock clock,
+                               long pollMillis, long promoteAfterMillis, Runnable onPromote) {
+        this.primaryUrl = primaryUrl;
+        this.dataStore = dataStore;
+        this.clock = clock;
+        this.pollMillis = Math.max(1, pollMillis);
+        this.promoteAfterMillis = promoteAfterMillis;
+        this.onPromote = onPromote;
+    }
+
+    // Starts polling the primary on a background thread.
+    public synchronized void start() {
+        if (poller != null || promoted) {
+            return;
+        }
+        lastContactMillis = System.currentTimeMillis();
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replication-follower");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollOrPromote, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stops following the primary without promoting.
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    // Stops following and hands over to the promotion callback. Returns false if already promoted.
+    public boolean promote() {
+        synchronized (this) {
+            if (promoted) {
+                return false;
+            }
+            promoted = true;
+        }
+        stop();
+        onPromote.run();
+        return true;
+    }
+
+    // Fetches and applies the primary's changes since the last poll. Returns the number of entries applied.
+    public int poll() throws IOException {
+        LogBatch batch = fetch(highWater);
+        List<WeatherEntry> applied = batch.entries;
+        List<String> removed = new ArrayList<>();
+        if (highWater >= 0 && batch.stationCount >= 0 && dataStore.size() + countNew(applied) > batch.stationCount) {
+            // The log carries no removals; a station count below ours means the primary dropped stations
+            batch = fetch(-1);
+            applied = batch.entries;
+            for (WeatherEntry entry : dataStore.getData()) {
+                if (!batch.allIds.contains(entry.getId())) {
+                    removed.add(entry.getId());
+                }
+            }
+        }
+        if (!applied.isEmpty()) {
+            dataStore.saveAllDurably(applied);
+        }
+        // Removed only once the new data is in, so readers never see a station vanish and come back
+        for (String id : removed) {
+            dataStore.removeData(id);
+        }
+        clock.update(batch.highWater);
+        highWater = batch.highWater;
+        return applied.size();
+    }
+
+    // Retrieves whether this backup has been promoted.
+    public boolean isPromoted() {
+        return promoted;
+    }
+
+    // Retrieves the primary's Lamport time up to which this backup is complete.
+    public long getHighWater() {
+        return highWater;
+    }
+
+    // Retrieves how long ago the primary last answered.
+    public long getMillisSinceContact() {
+        return System.currentTimeMillis() - lastContactMillis;
+    }
+
+    private void pollOrPromote() {
+        answered = false;
+        try {
+            poll();
+            unreachablePolls = 0;
+        } catch (IOException | RuntimeException e) {
+            // An error status or a local failure means the primary is still there; only silence counts towards promotion
+            unreachablePolls = answered ? 0 : unreachablePolls + 1;
+            if (promoteAfterMillis > 0 && unreachablePolls >= UNREACHABLE_POLLS_TO_PROMOTE
+                    && getMillisSinceContact() >= promoteAfterMillis) {
+                System.err.println("Primary " + primaryUrl + " unreachable for " + getMillisSinceContact() + " ms; promoting.");
+                promote();
+            }
+        }
+    }
+
+    private int countNew(List<WeatherEntry> entries) {
+        int added = 0;
+        for (WeatherEntry entry : entries) {
+            if (dataStore.isNewEntry(entry.getId())) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private LogBatch fetch(long since) throws IOException {
+        URL url = new URL(primaryUrl + "/replication/log?since=" + since);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("GET");
+        conn.setRequestProperty("Lamport-Time", String.valueOf(clock.getTime()));
+        conn.setConnectTimeout((int) Math.min(Integer.MAX_VALUE, Math.max(1000, pollMillis * 10)));
+        conn.setReadTimeout((int) Math.min(Integer.MAX_VALUE, Math.max(5000, pollMillis * 50)));
+
+        int responseCode = conn.getResponseCode();
+        answered = true;
+        lastContactMillis = System.currentTimeMillis();
+        if (responseCode != 200) {
+            conn.disconnect();
+            throw new IOException("Replication request failed with code: " + responseCode);
+        }
+        LogBatch batch = new LogBatch();
+        batch.highWater = parseLong(conn.getHeaderField("Lamport-High-Water"), since);
+        batch.stationCount = parseLong(conn.getHeaderField("Station-Count"), -1);
+        batch.entries = new ArrayList<>();
+        // A full log names every live station, including those whose entries wait for the next poll
+        batch.allIds = since < 0 ? new HashSet<>() : null;
+        try (InputStream in = conn.getInputStream()) {
+            for (WeatherEntry entry : WeatherEntryCodec.readSequence(in)) {
+                if (batch.allIds != null && entry != null && entry.getId() != null) {
+                    batch.allIds.add(entry.getId());
+                }
+                // Entries past the high-water mark may still have lower-stamped writes in flight ahead of them;
+                // they are shipped again by the next poll, once everything before them is visible
+                if (entry != null && entry.getId() != null && entry.getTimestamp() <= batch.highWater) {
+                    batch.entries.add(entry);
+                }
+            }
+        }
+        return batch;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static class LogBatch {
+        List<WeatherEntry> entries;
+        // Every station id in a full log (since < 0), otherwise null
+        Set<String> allIds;
+        long highWater;
+        long stationCount;
+    }
+}
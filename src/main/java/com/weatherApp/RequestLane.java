@@ -0,0 +1,130 @@
+package com.weatherApp;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A bounded execution lane for one kind of request, so reads and writes cannot starve each other.
+// At most `threads` requests run at once and at most `queue` more wait; beyond that the rejection policy decides:
+// REJECT fails fast (the server answers 503), CALLER_RUNS runs the request on the HTTP thread that brought it.
+// With virtual threads (java21 build) every admitted request gets its own thread and only the limit applies.
+public class RequestLane {
+    public enum Rejection { REJECT, CALLER_RUNS }
+
+    private static final String VIRTUAL_EXECUTORS = "com.weatherApp.VirtualThreadExecutors";
+
+    private final String name;
+    private final Rejection rejection;
+    private final ExecutorService executor;
+    // Admission limit for virtual threads, which have no pool to bound them
+    private final Semaphore admitted;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public RequestLane(String name, int threads, int queue, Rejection rejection, boolean virtual) {
+        this.name = name;
+        this.rejection = rejection;
+        int poolSize = Math.max(1, threads);
+        ExecutorService virtualExecutor = virtual ? newVirtualExecutor(name) : null;
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+            this.admitted = new Semaphore(poolSize + Math.max(0, queue));
+        } else {
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queue)), r -> {
+                        Thread thread = new Thread(r, name + "-lane-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+            this.admitted = null;
+        }
+    }
+
+    // Builds the lane from aggregation.lane.<name>.threads, .queue and .rejection, and aggregation.lane.executor.
+    public static RequestLane fromConfig(ServerConfig config, String name, int threads, int queue, Rejection rejection) {
+        String prefix = "aggregation.lane." + name + ".";
+        String policy = config.getString(prefix + "rejection", rejection.name());
+        return new RequestLane(name,
+                config.getInt(prefix + "threads", threads),
+                config.getInt(prefix + "queue", queue),
+                "caller-runs".equalsIgnoreCase(policy) || "CALLER_RUNS".equalsIgnoreCase(policy) ? Rejection.CALLER_RUNS : Rejection.REJECT,
+                "virtual".equalsIgnoreCase(config.getString("aggregation.lane.executor", "platform")));
+    }
+
+    // Runs the task in the lane and waits for its result. Throws RejectedExecutionException if the lane is full
+    // and rejects; a checked exception thrown by the task is rethrown wrapped in an ExecutionException.
+    public <T> T call(Callable<T> task) throws ExecutionException, InterruptedException {
+        if (admitted != null && !admitted.tryAcquire()) {
+            return overflow(task);
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(admitted == null ? task : () -> {
+                try {
+                    return task.call();
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (admitted != null) {
+                admitted.release();
+            }
+            return overflow(task);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    // Retrieves how many requests this lane has turned away.
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Stops the lane's threads once queued requests are done.
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T overflow(Callable<T> task) throws ExecutionException {
+        if (rejection == Rejection.REJECT) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException(name + " lane is full");
+        }
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    // Creates a virtual-thread-per-task executor from the java21 build, or returns null on a Java 17 build.
+    private static ExecutorService newVirtualExecutor(String name) {
+        try {
+            return (ExecutorService) Class.forName(VIRTUAL_EXECUTORS)
+                    .getMethod("newPerTaskExecutor", String.class)
+                    .invoke(null, name + "-lane-");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Virtual-thread lanes need the java21 build (mvn -Pjava21); using a thread pool for " + name);
+            return null;
+        }
+    }
+}
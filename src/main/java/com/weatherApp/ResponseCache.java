@@ -0,0 +1,101 @@
+package com.weatherApp;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+// Holds the serialized GET /weather.json body for the current data store version.
+// The body is rebuilt once per change; GETs that arrive during a rebuild wait for it instead of serializing again.
+public class ResponseCache {
+    private final WeatherDataStore dataStore;
+    private final Object rebuildLock = new Object();
+    private volatile CachedBody current;
+    private CompletableFuture<CachedBody> rebuilding;
+
+    public ResponseCache(WeatherDataStore dataStore) {
+        this.dataStore = dataStore;
+    }
+
+    // Returns the JSON array of all entries, at least as new as the data at the time of the call.
+    public byte[] getBody() throws IOException {
+        long wanted = dataStore.getVersion();
+        while (true) {
+            CachedBody cached = current;
+            if (cached != null && cached.version >= wanted) {
+                return cached.body;
+            }
+
+            CompletableFuture<CachedBody> rebuild;
+            boolean owner = false;
+            synchronized (rebuildLock) {
+                cached = current;
+                if (cached != null && cached.version >= wanted) {
+                    return cached.body;
+                }
+                if (rebuilding == null) {
+                    rebuilding = new CompletableFuture<>();
+                    owner = true;
+                }
+                rebuild = rebuilding;
+            }
+
+            if (owner) {
+                rebuild(rebuild);
+            }
+            // A rebuild that started before our version was published may still be too old; loop to check
+            cached = await(rebuild);
+            if (cached.version >= wanted) {
+                return cached.body;
+            }
+        }
+    }
+
+    // Retrieves the version of the body currently held, or -1 if nothing is cached yet.
+    public long getCachedVersion() {
+        CachedBody cached = current;
+        return cached == null ? -1 : cached.version;
+    }
+
+    private void rebuild(CompletableFuture<CachedBody> rebuild) {
+        try {
+            // Read the version first so the body is never older than the version it is tagged with
+            long version = dataStore.getVersion();
+            CachedBody built = new CachedBody(version, serialize(dataStore.getData()));
+            current = built;
+            rebuild.complete(built);
+        } catch (IOException | RuntimeException e) {
+            rebuild.completeExceptionally(e);
+        } finally {
+            synchronized (rebuildLock) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    // Encodes the body; a seam for tests that count rebuilds.
+    byte[] serialize(Iterable<WeatherEntry> entries) throws IOException {
+        return WeatherEntryCodec.writeArrayBytes(entries);
+    }
+
+    private static CachedBody await(CompletableFuture<CachedBody> rebuild) throws IOException {
+        try {
+            return rebuild.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for response body", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private static class CachedBody {
+        final long version;
+        final byte[] body;
+
+        CachedBody(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.weatherApp;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+// Retries uploads without blocking a thread between attempts.
+// Waits use exponential backoff with full jitter, so clients that failed together do not retry together.
+// Each target server has a retry budget (retries may be at most a fraction of requests) and a circuit
+// breaker that stops sending after repeated failures and lets a single trial through once it cools down.
+public class RetryScheduler {
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 500;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 30_000;
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MILLIS = 10_000;
+    // Each request earns this fraction of a retry, up to the cap; the cap is also the starting balance
+    private static final double BUDGET_PER_REQUEST = 0.2;
+    private static final double BUDGET_CAP = 10;
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService attempts;
+    private final ConcurrentHashMap<String, TargetState> targets = new ConcurrentHashMap<>();
+
+    public RetryScheduler() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS,
+                DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS);
+    }
+
+    public RetryScheduler(int maxRetries, long baseDelayMillis, long maxDelayMillis, int failureThreshold, long openMillis) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "retry-timer"));
+        // Retries are started off the timer thread, which only keeps time; an attempt may block on I/O
+        this.attempts = Executors.newCachedThreadPool(r -> daemon(r, "retry-attempt"));
+    }
+
+    // Runs attempt(0), then attempt(1), ... until one returns 200 or 201 or retries run out.
+    // The future completes with the last response code, or exceptionally with the last I/O failure.
+    public CompletableFuture<Integer> execute(String target, IntFunction<CompletableFuture<Integer>> attempt) {
+        TargetState state = targets.computeIfAbsent(target, t -> new TargetState());
+        state.depositBudget();
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        run(target, state, attempt, 0, result);
+        return result;
+    }
+
+    // Retrieves whether the circuit for the target is currently refusing requests.
+    public boolean isCircuitOpen(String target) {
+        TargetState state = targets.get(target);
+        return state != null && state.millisUntilTrial() > 0;
+    }
+
+    // Stops the timer; retries not yet started are dropped.
+    public void shutdown() {
+        timer.shutdownNow();
+        attempts.shutdown();
+    }
+
+    private void run(String target, TargetState state, IntFunction<CompletableFuture<Integer>> attempt,
+                     int number, CompletableFuture<Integer> result) {
+        if (!state.tryAcquire()) {
+            // Fail fast while open; a retry is pushed past the cool-down so it lands on a half-open circuit
+            IOException open = new IOException("Circuit open for " + target);
+            retryOrFinish(target, state, attempt, number, result, null, open, state.millisUntilTrial());
+            return;
+        }
+
+        CompletableFuture<Integer> call;
+        try {
+            call = attempt.apply(number);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((code, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null && isSuccess(code)) {
+                state.onSuccess();
+                result.complete(code);
+                return;
+            }
+            state.onFailure(failureThreshold, openMillis);
+            retryOrFinish(target, state, attempt, number, result, code, cause, 0);
+        });
+    }
+
+    private void retryOrFinish(String target, TargetState state, IntFunction<CompletableFuture<Integer>> attempt,
+                               int number, CompletableFuture<Integer> result, Integer code, Throwable cause,
+                               long minDelayMillis) {
+        if (number >= maxRetries || !state.withdrawBudget()) {
+            if (cause != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(code);
+            }
+            return;
+        }
+        long delay = minDelayMillis + backoffMillis(number);
+        try {
+            timer.schedule(() -> attempts.execute(() -> run(target, state, attempt, number + 1, result)),
+                    delay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Shut down: report the failure we already have
+            result.completeExceptionally(cause != null ? cause : e);
+        }
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^retry)].
+    long backoffMillis(int retry) {
+        long ceiling = baseDelayMillis << Math.min(retry, 30);
+        if (ceiling <= 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isSuccess(Integer code) {
+        return code != null && (code == 200 || code == 201);
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // Circuit breaker and retry budget for one target server.
+    private static class TargetState {
+        private int consecutiveFailures;
+        private boolean open;
+        private long openUntilNanos;
+        private boolean trialInFlight;
+        private double budget = BUDGET_CAP;
+
+        // Returns false if the circuit is open. Once the cool-down has passed, lets exactly one trial through.
+        synchronized boolean tryAcquire() {
+            if (!open) {
+                return true;
+            }
+            if (trialInFlight || System.nanoTime() < openUntilNanos) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            open = false;
+            trialInFlight = false;
+        }
+
+        synchronized void onFailure(int threshold, long openMillis) {
+            consecutiveFailures++;
+            if (trialInFlight || consecutiveFailures >= threshold) {
+                open = true;
+                trialInFlight = false;
+                openUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(openMillis);
+            }
+        }
+
+        synchronized long millisUntilTrial() {
+            if (!open) {
+                return 0;
+            }
+            return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openUntilNanos - System.nanoTime()));
+        }
+
+        synchronized void depositBudget() {
+            budget = Math.min(BUDGET_CAP, budget + BUDGET_PER_REQUEST);
+        }
+
+        synchronized boolean withdrawBudget() {
+            if (budget < 1) {
+                return false;
+            }
+            budget -= 1;
+            return true;
+        }
+    }
+}
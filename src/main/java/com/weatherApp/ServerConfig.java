@@ -0,0 +1,80 @@
+package com.weatherApp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+// Settings for the AggregationServer, read from config.properties and overridable with -D system properties.
+public class ServerConfig {
+    private final Properties properties;
+
+    public ServerConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    // Loads config.properties from the classpath and applies any aggregation.* system properties on top.
+    public static ServerConfig load() {
+        return load("aggregation.");
+    }
+
+    // Loads config.properties from the classpath and applies system properties starting with prefix on top.
+    public static ServerConfig load(String prefix) {
+        Properties prop = new Properties();
+        try (InputStream input = ServerConfig.class.getClassLoader().getResourceAsStream("config.properties")) {
+            if (input != null) {
+                prop.load(input);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to load config.properties: " + e.getMessage());
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                prop.setProperty(key, System.getProperty(key));
+            }
+        }
+        return new ServerConfig(prop);
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,143 @@
+package com.weatherApp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Counters and latency histograms for the aggregation server's hot paths, reported by GET /metrics.
+// Everything is preallocated; recording is a few atomic increments with no allocation or locking.
+public class ServerMetrics {
+    // Routes with their own latency histogram and response-status counts
+    public enum Route { PUT, GET, REPLICATION_LOG }
+
+    private final LatencyHistogram[] routeLatency = new LatencyHistogram[Route.values().length];
+    // Responses per route by status class: index route * 5 + (status / 100 - 1)
+    private final AtomicLongArray statusCounts = new AtomicLongArray(Route.values().length * 5);
+    private final LatencyHistogram snapshotWrite = new LatencyHistogram();
+    private final LatencyHistogram walCommit = new LatencyHistogram();
+    private final LatencyHistogram checkpoint = new LatencyHistogram();
+    private final LatencyHistogram expiry = new LatencyHistogram();
+    private final LatencyHistogram load = new LatencyHistogram();
+    private final AtomicLong snapshotBytes = new AtomicLong();
+    private final AtomicLong walBytes = new AtomicLong();
+    private final AtomicLong walRecords = new AtomicLong();
+    private final AtomicLong expiredEntries = new AtomicLong();
+
+    public ServerMetrics() {
+        for (int i = 0; i < routeLatency.length; i++) {
+            routeLatency[i] = new LatencyHistogram();
+        }
+    }
+
+    // Records a finished request: its latency since startNanos and its response status.
+    public void recordRequest(Route route, long startNanos, int status) {
+        routeLatency[route.ordinal()].recordSince(startNanos);
+        int statusClass = Math.min(5, Math.max(1, status / 100)) - 1;
+        statusCounts.incrementAndGet(route.ordinal() * 5 + statusClass);
+    }
+
+    // Records a snapshot file write and its size.
+    public void recordSnapshotWrite(long startNanos, long bytes) {
+        snapshotWrite.recordSince(startNanos);
+        snapshotBytes.addAndGet(bytes);
+    }
+
+    // Records one write-ahead log group commit.
+    public void recordWalCommit(long startNanos, long bytes, int records) {
+        walCommit.recordSince(startNanos);
+        walBytes.addAndGet(bytes);
+        walRecords.addAndGet(records);
+    }
+
+    public void recordCheckpoint(long startNanos) {
+        checkpoint.recordSince(startNanos);
+    }
+
+    // Records one expiry pass and how many entries it removed.
+    public void recordExpiry(long startNanos, int removed) {
+        expiry.recordSince(startNanos);
+        expiredEntries.addAndGet(removed);
+    }
+
+    public void recordLoad(long startNanos) {
+        load.recordSince(startNanos);
+    }
+
+    // Retrieves the latency histogram for a route.
+    public LatencyHistogram getRouteLatency(Route route) {
+        return routeLatency[route.ordinal()];
+    }
+
+    // Retrieves the number of responses for a route with the given status class (2 for 2xx, and so on).
+    public long getStatusCount(Route route, int statusClass) {
+        return statusCounts.get(route.ordinal() * 5 + Math.min(5, Math.max(1, statusClass)) - 1);
+    }
+
+    public long getSnapshotWrites() {
+        return snapshotWrite.getCount();
+    }
+
+    public long getSnapshotBytes() {
+        return snapshotBytes.get();
+    }
+
+    public long getWalBytes() {
+        return walBytes.get();
+    }
+
+    public long getExpiredEntries() {
+        return expiredEntries.get();
+    }
+
+    // Builds the /metrics document; only called when the endpoint is read.
+    public Map<String, Object> toMap() {
+        Map<String, Object> requests = new LinkedHashMap<>();
+        for (Route route : Route.values()) {
+            Map<String, Object> byRoute = new LinkedHashMap<>();
+            Map<String, Long> statuses = new LinkedHashMap<>();
+            for (int statusClass = 1; statusClass <= 5; statusClass++) {
+                statuses.put(statusClass + "xx", getStatusCount(route, statusClass));
+            }
+            byRoute.put("status", statuses);
+            byRoute.put("latency", describe(routeLatency[route.ordinal()]));
+            requests.put(route.name().toLowerCase(), byRoute);
+        }
+
+        Map<String, Object> persistence = new LinkedHashMap<>();
+        persistence.put("snapshotWrite", describe(snapshotWrite));
+        persistence.put("snapshotBytesWritten", snapshotBytes.get());
+        persistence.put("walCommit", describe(walCommit));
+        persistence.put("walBytesWritten", walBytes.get());
+        persistence.put("walRecordsWritten", walRecords.get());
+        persistence.put("checkpoint", describe(checkpoint));
+        persistence.put("load", describe(load));
+
+        Map<String, Object> expiryStats = new LinkedHashMap<>();
+        expiryStats.put("runs", describe(expiry));
+        expiryStats.put("expiredEntries", expiredEntries.get());
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("requests", requests);
+        metrics.put("persistence", persistence);
+        metrics.put("expiry", expiryStats);
+        return metrics;
+    }
+
+    // Summarizes a histogram in milliseconds.
+    private static Map<String, Object> describe(LatencyHistogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getCount());
+        summary.put("meanMillis", toMillis(histogram.getMeanNanos()));
+        summary.put("p50Millis", toMillis(histogram.getValueAtQuantile(0.5)));
+        summary.put("p99Millis", toMillis(histogram.getValueAtQuantile(0.99)));
+        summary.put("p999Millis", toMillis(histogram.getValueAtQuantile(0.999)));
+        summary.put("maxMillis", toMillis(histogram.getMaxNanos()));
+        return summary;
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+}
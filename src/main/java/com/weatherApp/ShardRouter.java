@@ -0,0 +1,320 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import spark.Request;
+import spark.Response;
+import spark.Spark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Front end for a sharded cluster: each station id lives on the AggregationServer the consistent hash ring picks.
+// PUTs go to the owning shard (a batch is split per shard and the reports merged back in request order);
+// GETs for named stations go to their owners, and a full GET is scattered to every shard and gathered.
+public class ShardRouter {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] FORWARDED_HEADERS = {"Lamport-Time", "Content-Type", "Accept"};
+
+    private static int port = 4580;
+    private static ConsistentHashRing ring;
+    private static ObjectMapper objectMapper = new ObjectMapper();
+    private static HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+
+    // Arguments: [port] [shard URL ...]; without shard URLs, aggregation.shard.urls is used.
+    public static void main(String[] args) {
+        ServerConfig config = ServerConfig.load();
+        if (args.length > 0) {
+            port = Integer.parseInt(args[0]);
+        }
+        List<String> shards = new ArrayList<>();
+        if (args.length > 1) {
+            shards.addAll(Arrays.asList(args).subList(1, args.length));
+        } else {
+            for (String url : config.getString("aggregation.shard.urls", "http://localhost:4567").split(",")) {
+                if (!url.trim().isEmpty()) {
+                    shards.add(url.trim());
+                }
+            }
+        }
+        ring = new ConsistentHashRing(shards,
+                config.getInt("aggregation.shard.virtualNodes", ConsistentHashRing.DEFAULT_VIRTUAL_NODES));
+
+        Spark.port(port);
+        Spark.put("/weather.json", (request, response) -> handlePut(request, response));
+        Spark.get("/weather.json", (request, response) -> handleGet(request, response));
+        Spark.notFound((req, res) -> {
+            res.status(400);
+            return "Bad Request";
+        });
+        System.out.println("Routing port " + port + " to " + shards.size() + " shard(s): " + shards);
+    }
+
+    // Forwards a PUT to the shard owning its station, or splits a batch across shards.
+    private static Object handlePut(Request request, Response response) {
+        String body = request.body();
+        JsonNode json = null;
+        try {
+            json = body == null || body.isEmpty() ? null : objectMapper.readTree(body);
+        } catch (IOException e) {
+            // Left for a shard to reject, so the error matches a direct PUT
+        }
+        if (json != null && json.isArray()) {
+            return handleBatchPut(request, response, (ArrayNode) json);
+        }
+        JsonNode id = json == null ? null : json.get("id");
+        // Anything without a routable id goes to the first shard, which answers exactly as a lone server would
+        String shard = id != null && id.isTextual() && !id.asText().isEmpty()
+                ? ring.shardFor(id.asText()) : ring.getShards().get(0);
+        try {
+            return relay(forward(request, "PUT", shard, "", body).join(), response);
+        } catch (CompletionException e) {
+            response.status(502);
+            return "Shard unavailable: " + shard;
+        }
+    }
+
+    // Sends each shard its part of the batch at once and merges the per-entry reports.
+    private static Object handleBatchPut(Request request, Response response, ArrayNode batch) {
+        PutResult[] results = new PutResult[batch.size()];
+        Map<Integer, ArrayNode> parts = new LinkedHashMap<>();
+        Map<Integer, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            JsonNode id = batch.get(i).get("id");
+            if (id == null || !id.isTextual() || id.asText().isEmpty()) {
+                results[i] = new PutResult(i, null, 500, "Missing 'id'");
+                continue;
+            }
+            int shard = ring.shardIndexFor(id.asText());
+            parts.computeIfAbsent(shard, s -> objectMapper.createArrayNode()).add(batch.get(i));
+            positions.computeIfAbsent(shard, s -> new ArrayList<>()).add(i);
+        }
+
+        Map<Integer, CompletableFuture<HttpResponse<byte[]>>> calls = new LinkedHashMap<>();
+        for (Map.Entry<Integer, ArrayNode> part : parts.entrySet()) {
+            calls.put(part.getKey(), forward(request, "PUT", ring.getShards().get(part.getKey()), "", part.getValue().toString()));
+        }
+        boolean anyCreated = false;
+        boolean anyApplied = false;
+        for (Map.Entry<Integer, CompletableFuture<HttpResponse<byte[]>>> call : calls.entrySet()) {
+            List<Integer> indexes = positions.get(call.getKey());
+            HttpResponse<byte[]> shardResponse;
+            PutResult[] shardResults = null;
+            try {
+                shardResponse = call.getValue().join();
+                if (shardResponse.statusCode() < 300) {
+                    shardResults = objectMapper.readValue(shardResponse.body(), PutResult[].class);
+                }
+            } catch (CompletionException | IOException e) {
+                shardResponse = null;
+            }
+            for (int j = 0; j < indexes.size(); j++) {
+                int index = indexes.get(j);
+                String id = batch.get(index).get("id").asText();
+                if (shardResults == null || j >= shardResults.length) {
+                    int status = shardResponse == null ? 502 : shardResponse.statusCode();
+                    results[index] = new PutResult(index, id, status, "Shard " + ring.getShards().get(call.getKey()) + " failed");
+                    continue;
+                }
+                PutResult result = shardResults[j];
+                results[index] = new PutResult(index, id, result.getStatus(), result.getError());
+                anyCreated |= result.getStatus() == 201;
+                anyApplied |= result.getStatus() == 200 || result.getStatus() == 201;
+            }
+        }
+
+        // Same rule as a single server: 201 if any station was created, 200 if all were updates, 500 if none applied
+        response.status(!anyApplied ? 500 : anyCreated ? 201 : 200);
+        response.type("application/json");
+        try {
+            return objectMapper.writeValueAsBytes(results);
+        } catch (IOException e) {
+            return "Data Received";
+        }
+    }
+
+    // Answers a GET from the owners of the named stations, or from every shard.
+    private static Object handleGet(Request request, Response response) {
+        Set<String> ids = AggregationServer.parseStationIds(request);
+        if (!ids.isEmpty() && request.queryParams("since") == null) {
+            return gatherStations(request, response, ids);
+        }
+
+        List<CompletableFuture<HttpResponse<byte[]>>> calls = new ArrayList<>();
+        for (String shard : ring.getShards()) {
+            calls.add(forward(request, "GET", shard, query(request), null));
+        }
+        List<HttpResponse<byte[]>> answers = new ArrayList<>();
+        for (int i = 0; i < calls.size(); i++) {
+            try {
+                HttpResponse<byte[]> answer = calls.get(i).join();
+                if (answer.statusCode() != 200) {
+                    return relay(answer, response);
+                }
+                answers.add(answer);
+            } catch (CompletionException e) {
+                response.status(502);
+                return "Shard unavailable: " + ring.getShards().get(i);
+            }
+        }
+
+        // Shards keep separate Lamport clocks. Asking every shard from the lowest high-water mark can repeat a few
+        // entries next time but never skips one; station counts simply add up
+        // Each shard's tag carries its own process epoch, so the combined tag changes when any shard restarts
+        StringBuilder etag = new StringBuilder("\"");
+        long highWater = Long.MAX_VALUE;
+        long stationCount = 0;
+        boolean sinceHeaders = false;
+        for (HttpResponse<byte[]> answer : answers) {
+            String shardETag = answer.headers().firstValue("ETag").orElse("\"\"");
+            etag.append(etag.length() > 1 ? "." : "").append(shardETag.replace("\"", ""));
+            String shardHighWater = answer.headers().firstValue("Lamport-High-Water").orElse(null);
+            if (shardHighWater != null) {
+                sinceHeaders = true;
+                highWater = Math.min(highWater, Long.parseLong(shardHighWater));
+                stationCount += Long.parseLong(answer.headers().firstValue("Station-Count").orElse("0"));
+            }
+        }
+        etag.append('"');
+        // Shard tags already differ per representation; Accept picks which one this is
+        response.header("ETag", etag.toString());
+        response.header("Vary", "Accept");
+        if (sinceHeaders) {
+            response.header("Lamport-High-Water", String.valueOf(highWater));
+            response.header("Station-Count", String.valueOf(stationCount));
+        }
+        if (AggregationServer.matchesETag(request.headers("If-None-Match"), etag.toString())) {
+            response.status(304);
+            return "";
+        }
+
+        String type = answers.get(0).headers().firstValue("Content-Type").orElse("application/json");
+        response.type(type);
+        response.status(200);
+        return type.contains(EntryStreamWriter.NDJSON_TYPE) ? concatenate(answers) : mergeArrays(answers);
+    }
+
+    // Looks the stations up on their owners and returns them in request order.
+    private static Object gatherStations(Request request, Response response, Set<String> ids) {
+        Map<Integer, List<String>> byShard = new LinkedHashMap<>();
+        for (String id : ids) {
+            byShard.computeIfAbsent(ring.shardIndexFor(id), s -> new ArrayList<>()).add(id);
+        }
+        List<CompletableFuture<HttpResponse<byte[]>>> calls = new ArrayList<>();
+        for (Map.Entry<Integer, List<String>> shard : byShard.entrySet()) {
+            String idQuery = "id=" + URLEncoder.encode(String.join(",", shard.getValue()), StandardCharsets.UTF_8);
+            calls.add(forward(request, "GET", ring.getShards().get(shard.getKey()), idQuery, null));
+        }
+        Map<String, JsonNode> found = new HashMap<>();
+        for (CompletableFuture<HttpResponse<byte[]>> call : calls) {
+            try {
+                HttpResponse<byte[]> answer = call.join();
+                if (answer.statusCode() != 200) {
+                    return relay(answer, response);
+                }
+                for (JsonNode entry : objectMapper.readTree(answer.body())) {
+                    found.put(entry.path("id").asText(), entry);
+                }
+            } catch (CompletionException | IOException e) {
+                response.status(502);
+                return "Shard unavailable";
+            }
+        }
+        ArrayNode ordered = objectMapper.createArrayNode();
+        for (String id : ids) {
+            JsonNode entry = found.get(id);
+            if (entry != null) {
+                ordered.add(entry);
+            }
+        }
+        response.status(200);
+        response.type("application/json");
+        return ordered.toString();
+    }
+
+    // Joins JSON array bodies byte-wise, without parsing the entries.
+    private static byte[] mergeArrays(List<HttpResponse<byte[]>> answers) {
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        merged.write('[');
+        boolean first = true;
+        for (HttpResponse<byte[]> answer : answers) {
+            byte[] body = answer.body();
+            int start = 0;
+            int end = body.length;
+            while (start < end && body[start] != '[') start++;
+            while (end > start && body[end - 1] != ']') end--;
+            // Inside the brackets; skip arrays with nothing but whitespace
+            start++;
+            end--;
+            int contentStart = start;
+            while (contentStart < end && Character.isWhitespace(body[contentStart])) contentStart++;
+            if (contentStart >= end) {
+                continue;
+            }
+            if (!first) {
+                merged.write(',');
+            }
+            merged.write(body, start, end - start);
+            first = false;
+        }
+        merged.write(']');
+        return merged.toByteArray();
+    }
+
+    private static byte[] concatenate(List<HttpResponse<byte[]>> answers) {
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        for (HttpResponse<byte[]> answer : answers) {
+            merged.writeBytes(answer.body());
+        }
+        return merged.toByteArray();
+    }
+
+    private static CompletableFuture<HttpResponse<byte[]>> forward(Request request, String method, String shard,
+                                                                   String query, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(shard + "/weather.json" + (query.isEmpty() ? "" : "?" + query)))
+                .timeout(REQUEST_TIMEOUT)
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        for (String header : FORWARDED_HEADERS) {
+            String value = request.headers(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+        return client.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    // Passes a shard's answer back to the client unchanged.
+    private static Object relay(HttpResponse<byte[]> answer, Response response) {
+        response.status(answer.statusCode());
+        answer.headers().firstValue("Content-Type").ifPresent(response::type);
+        answer.headers().firstValue("ETag").ifPresent(etag -> response.header("ETag", etag));
+        return answer.body();
+    }
+
+    private static String query(Request request) {
+        String query = request.queryString();
+        return query == null ? "" : query;
+    }
+}
@@ -0,0 +1,236 @@
+package com.weatherApp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Watches a directory of station files and uploads each file again whenever it changes.
+// Editors and copy tools often fire several events per save, so events are collected until the directory
+// has been quiet for a moment, and a file is only re-parsed if its size or modification time moved.
+// A periodic rescan retries files whose upload failed, since they may not change again.
+public class StationFileWatcher implements Closeable {
+    private static final long QUIET_MILLIS = 200;
+
+    private final Path directory;
+    private final int maxInFlight;
+    private final long rescanMillis;
+    private final Semaphore inFlight;
+    private final Function<WeatherEntry, CompletableFuture<Boolean>> uploader;
+    private final Map<Path, FileVersion> uploaded = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread watcher;
+    private volatile boolean closed;
+
+    public StationFileWatcher(Path directory, int maxInFlight, Function<WeatherEntry, CompletableFuture<Boolean>> uploader) {
+        this(directory, maxInFlight, 0, uploader);
+    }
+
+    // Same as above, also checking every file again every rescanMillis (0 = only on change events).
+    public StationFileWatcher(Path directory, int maxInFlight, long rescanMillis,
+                              Function<WeatherEntry, CompletableFuture<Boolean>> uploader) {
+        this.directory = directory;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.rescanMillis = Math.max(0, rescanMillis);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.uploader = uploader;
+    }
+
+    // Uploads every station file already in the directory, then keeps watching it on a background thread.
+    public void start() throws IOException {
+        watchService = directory.getFileSystem().newWatchService();
+        // Register before the initial scan so nothing written in between is missed
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        scan();
+        watcher = new Thread(this::watch, "station-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    // Uploads every file in the directory that changed since it was last uploaded. Returns how many stations were sent.
+    public int scan() throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        listFiles(files);
+        return uploadChanged(files);
+    }
+
+    // Waits for uploads in flight to finish and stops watching.
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (watcher != null) {
+            try {
+                watcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Holding every permit means no upload is still running
+        try {
+            if (inFlight.tryAcquire(maxInFlight, 1, TimeUnit.MINUTES)) {
+                inFlight.release(maxInFlight);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watch() {
+        try {
+            long nextRescan = System.currentTimeMillis() + rescanMillis;
+            while (!closed) {
+                WatchKey key = rescanMillis > 0
+                        ? watchService.poll(Math.max(1, nextRescan - System.currentTimeMillis()), TimeUnit.MILLISECONDS)
+                        : watchService.take();
+                Set<Path> changed = new LinkedHashSet<>();
+                if (key != null) {
+                    collect(key, changed);
+                    // Let a burst of events for the same save settle before reading the files
+                    while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        collect(key, changed);
+                    }
+                }
+                if (rescanMillis > 0 && System.currentTimeMillis() >= nextRescan) {
+                    // Unchanged, uploaded files are skipped, so this only re-sends files whose upload failed
+                    rescan(changed);
+                    nextRescan = System.currentTimeMillis() + rescanMillis;
+                }
+                uploadChanged(changed);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // close() was called
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were dropped; fall back to checking every file
+                rescan(changed);
+                continue;
+            }
+            changed.add(directory.resolve((Path) event.context()));
+        }
+        key.reset();
+    }
+
+    private void rescan(Set<Path> changed) {
+        try {
+            listFiles(changed);
+        } catch (IOException e) {
+            System.err.println("Failed to rescan " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private void listFiles(Set<Path> files) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+    }
+
+    private int uploadChanged(Set<Path> files) {
+        int sent = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.startsWith(".") || name.endsWith(".tmp") || !Files.isRegularFile(file)) {
+                continue;
+            }
+            FileVersion version;
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                version = new FileVersion(attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                continue; // Deleted since the event
+            }
+            if (version.equals(uploaded.get(file))) {
+                continue;
+            }
+
+            uploaded.put(file, version);
+            // A file may be a bulk feed; each station in it is uploaded on its own
+            try (FeedParser feed = ContentServer.readFeed(file.toString())) {
+                for (WeatherEntry entry : feed) {
+                    if (upload(file, version, entry)) {
+                        sent++;
+                    }
+                }
+                for (FeedParser.Malformed record : feed.getMalformed()) {
+                    System.err.println("Skipped malformed record at " + record);
+                }
+            } catch (IOException | RuntimeException e) {
+                uploaded.remove(file, version);
+                System.err.println("Skipping " + name + ": " + e.getMessage());
+            }
+        }
+        return sent;
+    }
+
+    // Starts the upload once a slot is free, so at most maxInFlight uploads run at a time.
+    private boolean upload(Path file, FileVersion version, WeatherEntry entry) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        CompletableFuture<Boolean> upload;
+        try {
+            upload = uploader.apply(entry);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        upload.whenComplete((ok, error) -> {
+            inFlight.release();
+            if (error != null || !Boolean.TRUE.equals(ok)) {
+                // Forget the version so the next change or rescan tries this file again
+                uploaded.remove(file, version);
+            }
+        });
+        return true;
+    }
+
+    private static class FileVersion {
+        final long size;
+        final long modifiedMillis;
+
+        FileVersion(long size, long modifiedMillis) {
+            this.size = size;
+            this.modifiedMillis = modifiedMillis;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FileVersion)) return false;
+            FileVersion other = (FileVersion) o;
+            return size == other.size && modifiedMillis == other.modifiedMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(modifiedMillis);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.weatherApp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Local copy of the aggregation server's stations, kept up to date by polling GET /weather.json?since=<lamport>.
+public class StationMirror {
+    private final String serverUrl;
+    private final LamportClock clock;
+    private final Map<String, WeatherEntry> stations = new HashMap<>();
+    private long highWater = -1;
+
+    public StationMirror(String serverUrl, LamportClock clock) {
+        this.serverUrl = serverUrl;
+        this.clock = clock;
+    }
+
+    // Fetches the entries changed since the last poll, applies them and returns them.
+    public List<WeatherEntry> poll() throws IOException {
+        Delta delta = fetch(highWater);
+        if (highWater >= 0 && delta.stationCount >= 0 && stations.size() + countNew(delta.entries) > delta.stationCount) {
+            // The server dropped stations we still hold (expiry); deltas do not carry removals, so start over
+            stations.clear();
+            delta = fetch(-1);
+        }
+        for (WeatherEntry entry : delta.entries) {
+            stations.put(entry.getId(), entry);
+        }
+        highWater = delta.highWater;
+        return delta.entries;
+    }
+
+    // Retrieves the mirrored stations by id.
+    public Map<String, WeatherEntry> getStations() {
+        return Collections.unmodifiableMap(stations);
+    }
+
+    // Retrieves the Lamport time the next poll will ask from.
+    public long getHighWater() {
+        return highWater;
+    }
+
+    private int countNew(List<WeatherEntry> entries) {
+        int added = 0;
+        for (WeatherEntry entry : entries) {
+            if (!stations.containsKey(entry.getId())) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private Delta fetch(long since) throws IOException {
+        long lamportTime = clock.tickAndGet();
+        URL url = new URL(serverUrl + "/weather.json?since=" + since);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("GET");
+        conn.setRequestProperty("Lamport-Time", String.valueOf(lamportTime));
+
+        int responseCode = conn.getResponseCode();
+        if (responseCode != 200) {
+            throw new IOException("GET request failed with code: " + responseCode);
+        }
+        String responseLamportTime = conn.getHeaderField("Lamport-Time");
+        if (responseLamportTime != null) {
+            try {
+                clock.update(Long.parseLong(responseLamportTime));
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid Lamport-Time header in response.");
+            }
+        }
+
+        Delta delta = new Delta();
+        delta.highWater = parseLong(conn.getHeaderField("Lamport-High-Water"), since);
+        delta.stationCount = parseLong(conn.getHeaderField("Station-Count"), -1);
+        try (InputStream in = conn.getInputStream()) {
+            delta.entries = WeatherEntryCodec.readList(in);
+        }
+        return delta;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static class Delta {
+        List<WeatherEntry> entries;
+        long highWater;
+        long stationCount;
+    }
+}
@@ -0,0 +1,306 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Local store-and-forward spool for station updates the aggregation server could not take.
+// Pending updates go to an append-only journal, one JSON line each, and are kept in memory newest-only per
+// station: an update stamped with a lower Lamport time than one already pending or delivered is dropped.
+// Draining sends the pending updates in batches; the journal is compacted once it is mostly superseded lines.
+public class UploadSpool implements Closeable {
+    // Compact when the journal holds this many lines beyond twice the pending count
+    private static final int COMPACT_SLACK = 64;
+
+    private final Path journal;
+    private final LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+    // Highest stamp known to have reached the server, per station
+    private final Map<String, Long> delivered = new HashMap<>();
+    private FileChannel channel;
+    private long journalLines;
+    private long highestStamp;
+
+    public UploadSpool(Path journal) {
+        this.journal = journal.toAbsolutePath();
+    }
+
+    // Loads updates left pending by an earlier run and opens the journal for appending.
+    public synchronized void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        if (Files.exists(journal)) {
+            try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) continue;
+                    try {
+                        apply(SpoolRecord.fromJson(line));
+                    } catch (IOException e) {
+                        // A torn write at the tail; the update it held was never acknowledged as spooled
+                        System.err.println("Skipping unreadable spool record: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        compact();
+    }
+
+    // Spools an update that could not be delivered, unless a newer one for the station is pending or delivered.
+    // Returns true if it was kept.
+    public synchronized boolean add(WeatherEntry entry, long stamp) throws IOException {
+        SpoolRecord record = SpoolRecord.put(entry, stamp);
+        if (!apply(record)) {
+            return false;
+        }
+        append(record);
+        return true;
+    }
+
+    // Records that the update with this stamp reached the server, dropping any older pending update for the station.
+    public synchronized void delivered(String id, long stamp) throws IOException {
+        SpoolRecord record = SpoolRecord.done(id, stamp);
+        Pending before = pending.get(id);
+        apply(record);
+        if (before != null && !pending.containsKey(id)) {
+            // Only journal what changes the pending set; a spool with nothing pending is never written to
+            append(record);
+        }
+    }
+
+    // Sends pending updates in batches of at most maxBatch, oldest first, until the spool is empty or a batch
+    // fails. Updates spooled while a batch is in flight stay pending. Returns how many updates were delivered.
+    public int drain(int maxBatch, Predicate<List<WeatherEntry>> sender) throws IOException {
+        int sent = 0;
+        while (true) {
+            List<Pending> batch = nextBatch(Math.max(1, maxBatch));
+            if (batch.isEmpty()) {
+                return sent;
+            }
+            List<WeatherEntry> entries = new ArrayList<>(batch.size());
+            for (Pending update : batch) {
+                entries.add(update.entry);
+            }
+            if (!sender.test(entries)) {
+                return sent;
+            }
+            synchronized (this) {
+                for (Pending update : batch) {
+                    delivered(update.entry.getId(), update.stamp);
+                }
+                if (journalLines > 2L * pending.size() + COMPACT_SLACK) {
+                    compact();
+                }
+            }
+            sent += batch.size();
+        }
+    }
+
+    // Retrieves the number of stations with an update waiting to be sent.
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    // Retrieves the highest Lamport stamp seen, so a restarted sender can move its clock past it.
+    public synchronized long getHighestStamp() {
+        return highestStamp;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private synchronized List<Pending> nextBatch(int maxBatch) {
+        List<Pending> batch = new ArrayList<>(Math.min(maxBatch, pending.size()));
+        for (Pending update : pending.values()) {
+            if (batch.size() == maxBatch) {
+                break;
+            }
+            batch.add(update);
+        }
+        return batch;
+    }
+
+    // Applies a journal record to the in-memory state. Returns false if it was superseded.
+    private boolean apply(SpoolRecord record) {
+        highestStamp = Math.max(highestStamp, record.stamp);
+        if (SpoolRecord.DONE.equals(record.op)) {
+            delivered.merge(record.id, record.stamp, Math::max);
+            Pending current = pending.get(record.id);
+            if (current != null && current.stamp <= record.stamp) {
+                pending.remove(record.id);
+            }
+            return true;
+        }
+        if (record.entry == null || record.id == null) {
+            return false;
+        }
+        Pending current = pending.get(record.id);
+        if ((current != null && current.stamp >= record.stamp) || delivered.getOrDefault(record.id, -1L) >= record.stamp) {
+            return false;
+        }
+        // Re-inserting moves the station to the back, so the oldest waiting update is sent first
+        pending.remove(record.id);
+        pending.put(record.id, new Pending(record.entry, record.stamp));
+        return true;
+    }
+
+    private void append(SpoolRecord record) throws IOException {
+        if (channel == null) {
+            throw new IOException("Upload spool is not open");
+        }
+        byte[] json = record.toJson();
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        journalLines++;
+    }
+
+    // Rewrites the journal with only the pending updates and swaps it in atomically.
+    private void compact() throws IOException {
+        Files.createDirectories(journal.getParent());
+        Path temp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            for (Pending update : pending.values()) {
+                out.write(SpoolRecord.put(update.entry, update.stamp).toJson());
+                out.write('\n');
+            }
+        }
+        try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            tempChannel.force(true);
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        journalLines = pending.size();
+    }
+
+    private static class Pending {
+        final WeatherEntry entry;
+        final long stamp;
+
+        Pending(WeatherEntry entry, long stamp) {
+            this.entry = entry;
+            this.stamp = stamp;
+        }
+    }
+
+    // One journal line: an update waiting to be sent, or a note that a station's update was delivered.
+    static class SpoolRecord {
+        static final String PUT = "put";
+        static final String DONE = "done";
+        private static final SerializedString OP_FIELD = new SerializedString("op");
+        private static final SerializedString ID_FIELD = new SerializedString("id");
+        private static final SerializedString STAMP_FIELD = new SerializedString("stamp");
+        private static final SerializedString ENTRY_FIELD = new SerializedString("entry");
+
+        String op;
+        String id;
+        long stamp;
+        WeatherEntry entry;
+
+        SpoolRecord() {
+        }
+
+        static SpoolRecord put(WeatherEntry entry, long stamp) {
+            SpoolRecord record = new SpoolRecord();
+            record.op = PUT;
+            record.id = entry.getId();
+            record.stamp = stamp;
+            record.entry = entry;
+            return record;
+        }
+
+        static SpoolRecord done(String id, long stamp) {
+            SpoolRecord record = new SpoolRecord();
+            record.op = DONE;
+            record.id = id;
+            record.stamp = stamp;
+            return record;
+        }
+
+        // Encodes the record as one journal line, omitting null fields: {"op":..,"id":..,"stamp":..,"entry":{..}}.
+        byte[] toJson() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (JsonGenerator generator = WeatherEntryCodec.getFactory().createGenerator(bytes)) {
+                generator.writeStartObject();
+                if (op != null) {
+                    generator.writeFieldName(OP_FIELD);
+                    generator.writeString(op);
+                }
+                if (id != null) {
+                    generator.writeFieldName(ID_FIELD);
+                    generator.writeString(id);
+                }
+                generator.writeFieldName(STAMP_FIELD);
+                generator.writeNumber(stamp);
+                if (entry != null) {
+                    generator.writeFieldName(ENTRY_FIELD);
+                    WeatherEntryCodec.write(generator, entry);
+                }
+                generator.writeEndObject();
+            }
+            return bytes.toByteArray();
+        }
+
+        // Decodes one journal line written by toJson().
+        static SpoolRecord fromJson(String line) throws IOException {
+            SpoolRecord record = new SpoolRecord();
+            try (JsonParser parser = WeatherEntryCodec.getFactory().createParser(line)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "Expected a spool record object");
+                }
+                JsonToken token;
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("entry".equals(field)) {
+                        record.entry = WeatherEntryCodec.read(parser);
+                    } else if ("stamp".equals(field)) {
+                        record.stamp = value == JsonToken.VALUE_NULL ? 0 : parser.getValueAsLong();
+                    } else if ("op".equals(field)) {
+                        record.op = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    } else if ("id".equals(field)) {
+                        record.id = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    } else {
+                        throw new JsonParseException(parser, "Unrecognized field \"" + field + "\" (class com.weatherApp.UploadSpool$SpoolRecord)");
+                    }
+                }
+                if (token != JsonToken.END_OBJECT) {
+                    throw new JsonParseException(parser, "Unexpected end-of-input: expected close marker for Object");
+                }
+            }
+            return record;
+        }
+    }
+}
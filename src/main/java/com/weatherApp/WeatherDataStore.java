@@ -1,101 +1,545 @@
 package com.weatherApp;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Iterator;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 public class WeatherDataStore {
-    private List<WeatherEntry> dataList;
+    // On-disk formats for the snapshot file; loading detects the format from the file itself.
+    public enum SnapshotFormat { JSON, BINARY }
+    // In-memory layouts: OBJECTS keeps each WeatherEntry as saved, COLUMNAR copies it into ColumnarStationTable
+    public enum Layout { OBJECTS, COLUMNAR }
+
+    private final Map<String, WeatherEntry> entries;
     private String filePath;
-    private ObjectMapper objectMapper;
+    private SnapshotFormat snapshotFormat = SnapshotFormat.JSON;
+    // Bumped after every change, so readers can tell whether cached views are still current
+    private final AtomicLong version = new AtomicLong();
+    // Entries ordered by Lamport timestamp, for since-queries that skip unchanged stations
+    private final ConcurrentSkipListSet<IndexKey> changeIndex = new ConcurrentSkipListSet<>();
+    // Entries ordered by lastUpdated, so expiry only visits stations that are due
+    private final ConcurrentSkipListSet<IndexKey> expiryIndex = new ConcurrentSkipListSet<>();
+    // Writes that will take a Lamport stamp above their floor but are not visible in changeIndex yet
+    private final ConcurrentSkipListSet<WriteTicket> pendingWrites = new ConcurrentSkipListSet<>();
+    private final AtomicLong ticketSeq = new AtomicLong();
+    private WriteAheadLog log;
+    // Held shared while an update is logged and published, exclusively while the log rotates, so a checkpoint's
+    // snapshot contains every update whose record is in a segment it deletes
+    private final ReentrantReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    // Held while a snapshot is written; every writer shares the one temp file next to the snapshot
+    private final Object snapshotLock = new Object();
+    // Store version the newest snapshot on disk is known to contain; guarded by snapshotLock
+    private long snapshotVersion = -1;
+    private ScheduledExecutorService checkpointer;
+    private ServerMetrics metrics = new ServerMetrics();
     private static final long EXPIRATION_THRESHOLD_MILLIS = 24 * 60 * 60 * 1000; // 24 hours
 
     public WeatherDataStore(String filePath) {
+        this(filePath, Layout.OBJECTS);
+    }
+
+    public WeatherDataStore(String filePath, Layout layout) {
         this.filePath = filePath;
-        this.objectMapper = new ObjectMapper();
-        this.dataList = new CopyOnWriteArrayList<>();
+        this.entries = layout == Layout.COLUMNAR ? new ColumnarStationTable() : new ConcurrentHashMap<>();
+    }
+
+    // Switches durability to an append-only log; call before loadPersistedData so the log tail is replayed.
+    public void enableWriteAheadLog() {
+        enableWriteAheadLog(WriteAheadLog.DEFAULT_MAX_BATCH, WriteAheadLog.DEFAULT_MAX_WAIT_MICROS);
+    }
+
+    // Same as enableWriteAheadLog(), with the group-commit batch size and maximum wait for the first record.
+    public void enableWriteAheadLog(int maxBatch, long maxWaitMicros) {
+        if (log == null) {
+            log = new WriteAheadLog(filePath, maxBatch, maxWaitMicros);
+            log.setMetrics(metrics);
+        }
+    }
+
+    // Returns true if updates are persisted through the write-ahead log.
+    public boolean isWriteAheadLogEnabled() {
+        return log != null;
+    }
+
+    // Sets where persistence, expiry and load timings are recorded.
+    public void setMetrics(ServerMetrics metrics) {
+        this.metrics = metrics;
+        if (log != null) {
+            log.setMetrics(metrics);
+        }
+    }
+
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Sets the format used when writing snapshots.
+    public void setSnapshotFormat(SnapshotFormat snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
     }
 
-    // Loads data from the JSON file.
+    // Loads the snapshot (binary or JSON), then replays the write-ahead log written since that snapshot.
     public void loadPersistedData() {
-        File file = new File(filePath);
-        if (!file.exists()) {
-            return; // No data to load
+        long start = System.nanoTime();
+        Path path = Paths.get(filePath);
+        if (Files.exists(path)) {
+            try {
+                if (BinarySnapshot.isBinarySnapshot(path)) {
+                    List<WeatherEntry> loaded = new ArrayList<>();
+                    BinarySnapshot.read(path, loaded::add);
+                    replaceAll(loaded);
+                } else {
+                    importJson(filePath);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to load persisted data: " + e.getMessage());
+            }
         }
-        try {
-            dataList = objectMapper.readValue(file, new TypeReference<List<WeatherEntry>>() {});
-        } catch (IOException e) {
-            System.err.println("Failed to load persisted data: " + e.getMessage());
+        if (log != null) {
+            try {
+                log.replay(this::applyRecord);
+                log.open();
+            } catch (IOException e) {
+                System.err.println("Failed to replay write-ahead log: " + e.getMessage());
+            }
         }
+        metrics.recordLoad(start);
     }
 
-    // Save current data to the JSON file.
+    // Replaces the contents of the store with the entries in a JSON array file.
+    public void importJson(String jsonPath) throws IOException {
+        List<WeatherEntry> loaded;
+        try (FileInputStream in = new FileInputStream(jsonPath)) {
+            loaded = WeatherEntryCodec.readList(in);
+        }
+        replaceAll(loaded);
+    }
+
+    // Writes the contents of the store to a JSON array file, whatever the snapshot format.
+    public void exportJson(String jsonPath) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(jsonPath)) {
+            WeatherEntryCodec.writeArray(out, entries.values());
+        }
+    }
+
+    // Makes all saved data durable: waits for the log to commit in WAL mode, otherwise rewrites the JSON file.
     public void persistData() throws IOException {
-        objectMapper.writeValue(new File(filePath), dataList);
-    }
-
-    // Saves a WeatherEntry to the data store.
-    public void saveData(WeatherEntry entry, int lamportTime) {
-        // Check if entry with same ID exists
-        boolean isNew = true;
-        for (WeatherEntry existingEntry : dataList) {
-            if (existingEntry.getId().equals(entry.getId())) {
-                // Update existing entry
-                existingEntry.setName(entry.getName());
-                existingEntry.setState(entry.getState());
-                existingEntry.setTimeZone(entry.getTimeZone());
-                existingEntry.setLat(entry.getLat());
-                existingEntry.setLon(entry.getLon());
-                existingEntry.setLocalDateTime(entry.getLocalDateTime());
-                existingEntry.setLocalDateTimeFull(entry.getLocalDateTimeFull());
-                existingEntry.setAirTemp(entry.getAirTemp());
-                existingEntry.setApparentT(entry.getApparentT());
-                existingEntry.setCloud(entry.getCloud());
-                existingEntry.setDewpt(entry.getDewpt());
-                existingEntry.setPress(entry.getPress());
-                existingEntry.setRelHum(entry.getRelHum());
-                existingEntry.setWindDir(entry.getWindDir());
-                existingEntry.setWindSpdKmh(entry.getWindSpdKmh());
-                existingEntry.setWindSpdKt(entry.getWindSpdKt());
-                existingEntry.setTimestamp(lamportTime);
-                existingEntry.setLastUpdated(entry.getLastUpdated());
-                isNew = false;
-                break;
+        if (log != null) {
+            log.sync();
+        } else {
+            syncSnapshot();
+        }
+    }
+
+    // Writes a compacted snapshot and drops the log segments it covers.
+    public void checkpoint() throws IOException {
+        if (log == null) {
+            writeSnapshot();
+            return;
+        }
+        if (!log.hasPendingRecords()) {
+            return; // Nothing written since the last checkpoint
+        }
+        long start = System.nanoTime();
+        // Records appended after the rotation land in the new segment and are replayed over the snapshot
+        List<Path> covered;
+        rotationLock.writeLock().lock();
+        try {
+            covered = log.rotate();
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+        writeSnapshot();
+        log.deleteSegments(covered);
+        metrics.recordCheckpoint(start);
+    }
+
+    // Runs checkpoint() periodically in the background.
+    public void startCheckpointer(long intervalMillis) {
+        if (checkpointer != null) {
+            return;
+        }
+        checkpointer = Executors.newSingleThreadScheduledExecutor();
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                System.err.println("Error writing checkpoint: " + e.getMessage());
             }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stops the checkpointer and closes the write-ahead log.
+    public void close() throws IOException {
+        if (checkpointer != null) {
+            checkpointer.shutdown();
+            checkpointer = null;
         }
-        if (isNew) {
-            dataList.add(entry);
+        if (log != null) {
+            log.close();
         }
     }
 
-    // Retrieves WeatherEntry data.
+    // Inserts or replaces the WeatherEntry for its station id. Returns true if the station was new.
+    public boolean saveData(WeatherEntry entry, long lamportTime) {
+        return upsert(entry, lamportTime, null);
+    }
+
+    // Saves the entry and waits until it is durable. Concurrent callers share one group commit in WAL mode,
+    // and in snapshot mode those queued behind a rewrite share the next one.
+    public boolean saveDataDurably(WeatherEntry entry, long lamportTime) throws IOException {
+        if (log == null) {
+            boolean created = saveData(entry, lamportTime);
+            syncSnapshot();
+            return created;
+        }
+        List<CompletableFuture<Void>> commit = new ArrayList<>(1);
+        boolean created = upsert(entry, lamportTime, commit);
+        WriteAheadLog.await(commit.get(0));
+        return created;
+    }
+
+    // Saves every entry under the Lamport time already stamped on it, with one persist for the whole batch.
+    // Returns, per entry, whether its station was new.
+    public boolean[] saveAllDurably(List<WeatherEntry> batch) throws IOException {
+        boolean[] created = new boolean[batch.size()];
+        List<CompletableFuture<Void>> commits = log == null ? null : new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            WeatherEntry entry = batch.get(i);
+            created[i] = upsert(entry, entry.getTimestamp(), commits);
+        }
+        if (log == null) {
+            syncSnapshot();
+        } else {
+            // The records share group commits; waiting on each costs nothing once the last one is down
+            for (CompletableFuture<Void> commit : commits) {
+                WriteAheadLog.await(commit);
+            }
+        }
+        return created;
+    }
+
+    // Retrieves a snapshot of all WeatherEntry data.
     public List<WeatherEntry> getData() {
-        return dataList;
+        return new ArrayList<>(entries.values());
     }
 
-    // Determines if the given ID corresponds to a new entry.
-    public boolean isNewEntry(String id) {
-        for (WeatherEntry entry : dataList) {
-            if (entry.getId().equals(id)) {
-                return false;
+    // Retrieves a live, read-only view of the entries, for callers that stream them without copying.
+    public Collection<WeatherEntry> entryView() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    // Retrieves the WeatherEntry for the given station id, or null if there is none.
+    public WeatherEntry getEntry(String id) {
+        return entries.get(id);
+    }
+
+    // Retrieves the entries for the given station ids, in request order, skipping unknown ids.
+    public List<WeatherEntry> getEntries(Collection<String> ids) {
+        List<WeatherEntry> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            WeatherEntry entry = entries.get(id);
+            if (entry != null) {
+                found.add(entry);
             }
         }
-        return true;
+        return found;
+    }
+
+    // Registers a write that is about to take a Lamport stamp greater than floor (the clock value read now).
+    // Until endWrite is called, since-queries report a high-water mark no higher than floor.
+    public WriteTicket beginWrite(long floor) {
+        WriteTicket ticket = new WriteTicket(floor, ticketSeq.incrementAndGet());
+        pendingWrites.add(ticket);
+        return ticket;
+    }
+
+    // Marks a write registered with beginWrite as finished, whether or not it succeeded.
+    public void endWrite(WriteTicket ticket) {
+        pendingWrites.remove(ticket);
+    }
+
+    // Retrieves entries whose Lamport timestamp is greater than since, plus the high-water mark to ask from next.
+    public ChangeSet getChangesSince(long since) {
+        // Read the newest indexed stamp before the pending floors; any write not yet registered then
+        // will be stamped above the clock, which is already at least this value
+        long highWater = since;
+        if (!changeIndex.isEmpty()) {
+            highWater = Math.max(highWater, changeIndex.last().order);
+        }
+        if (!pendingWrites.isEmpty()) {
+            highWater = Math.min(highWater, pendingWrites.first().floor);
+        }
+
+        List<WeatherEntry> changed = new ArrayList<>();
+        for (IndexKey key : changeIndex.tailSet(new IndexKey(since + 1, null), true)) {
+            WeatherEntry entry = entries.get(key.id);
+            // Skip stations that moved to a newer key while we iterate; they are reached again there
+            if (entry != null && entry.getTimestamp() == key.order) {
+                changed.add(entry);
+            }
+        }
+        return new ChangeSet(changed, Math.max(highWater, since));
+    }
+
+    // Removes the WeatherEntry for the given station id. Returns true if one was removed.
+    public boolean removeData(String id) {
+        return removeIf(id, existing -> true);
+    }
+
+    // Retrieves the number of stations held in the data store.
+    public int size() {
+        return entries.size();
+    }
+
+    // Determines if the given ID corresponds to a new entry.
+    public boolean isNewEntry(String id) {
+        return !entries.containsKey(id);
     }
 
     // Clears all data from data store.
     public void clearData() {
-        dataList.clear();
+        entries.clear();
+        changeIndex.clear();
+        expiryIndex.clear();
+        version.incrementAndGet();
+    }
+
+    // Retrieves the number of change-index keys; one per station while the index is consistent.
+    int changeIndexSize() {
+        return changeIndex.size();
+    }
+
+    // Retrieves the current data version; it increases every time the data changes.
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Expires old data. Returns the number of entries removed.
+    public int expireOldData() {
+        long start = System.nanoTime();
+        long cutoff = System.currentTimeMillis() - EXPIRATION_THRESHOLD_MILLIS;
+        Predicate<WeatherEntry> expired = entry -> entry.getLastUpdated() < cutoff;
+        int removed = 0;
+        // Only the head of the deadline order is due; an idle tick looks at one key and stops
+        for (IndexKey key : expiryIndex.headSet(new IndexKey(cutoff, null))) {
+            // Re-checked under the station's lock in case it was refreshed meanwhile
+            if (removeIf(key.id, expired)) {
+                removed++;
+            }
+        }
+        metrics.recordExpiry(start, removed);
+        return removed;
+    }
+
+    // Stores the entry under its station id and logs it; the log commit future is added to commits if given.
+    private boolean upsert(WeatherEntry entry, long lamportTime, List<CompletableFuture<Void>> commits) {
+        boolean[] created = new boolean[1];
+        // The log append happens inside compute so log order matches update order for each station
+        rotationLock.readLock().lock();
+        try {
+            entries.compute(entry.getId(), (id, existing) -> {
+                // Read the old index keys before restamping, since existing may be this same object saved again
+                long previousTimestamp = existing == null ? 0 : existing.getTimestamp();
+                long previousLastUpdated = existing == null ? 0 : existing.getLastUpdated();
+                entry.setTimestamp(lamportTime);
+                CompletableFuture<Void> commit = appendToLog(LogRecord.put(entry));
+                if (commits != null) {
+                    commits.add(commit);
+                }
+                if (existing != null) {
+                    changeIndex.remove(new IndexKey(previousTimestamp, id));
+                    expiryIndex.remove(new IndexKey(previousLastUpdated, id));
+                }
+                reindex(null, entry);
+                created[0] = existing == null;
+                return entry;
+            });
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+        version.incrementAndGet();
+        return created[0];
     }
 
-    // Expires old data.
-    public void expireOldData() {
-        long currentTime = System.currentTimeMillis();
-        dataList.removeIf(entry -> (currentTime - entry.getLastUpdated()) > EXPIRATION_THRESHOLD_MILLIS);
+    // Removes the entry for the station if it still matches the condition, logging the removal.
+    private boolean removeIf(String id, Predicate<WeatherEntry> condition) {
+        boolean[] removed = new boolean[1];
+        rotationLock.readLock().lock();
+        try {
+            entries.computeIfPresent(id, (key, existing) -> {
+                if (!condition.test(existing)) {
+                    return existing;
+                }
+                appendToLog(LogRecord.remove(key));
+                reindex(existing, null);
+                removed[0] = true;
+                return null;
+            });
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+        if (removed[0]) {
+            version.incrementAndGet();
+        }
+        return removed[0];
+    }
+
+    // Swaps in a fully loaded set of entries, leaving the store untouched if loading failed earlier.
+    private void replaceAll(List<WeatherEntry> loaded) {
+        entries.clear();
+        changeIndex.clear();
+        expiryIndex.clear();
+        for (WeatherEntry entry : loaded) {
+            if (entry.getId() != null) {
+                reindex(entries.put(entry.getId(), entry), entry);
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    // Moves a station's change-index and expiry-index keys from its previous entry to its current one (either may be null).
+    private void reindex(WeatherEntry previous, WeatherEntry current) {
+        if (previous != null) {
+            changeIndex.remove(new IndexKey(previous.getTimestamp(), previous.getId()));
+            expiryIndex.remove(new IndexKey(previous.getLastUpdated(), previous.getId()));
+        }
+        if (current != null) {
+            changeIndex.add(new IndexKey(current.getTimestamp(), current.getId()));
+            expiryIndex.add(new IndexKey(current.getLastUpdated(), current.getId()));
+        }
+    }
+
+    // Applies a replayed log record to the in-memory data.
+    private void applyRecord(LogRecord record) {
+        if (record.getId() == null) {
+            return;
+        }
+        if (record.isPut() && record.getEntry() != null) {
+            reindex(entries.put(record.getId(), record.getEntry()), record.getEntry());
+        } else if (LogRecord.REMOVE.equals(record.getOp())) {
+            reindex(entries.remove(record.getId()), null);
+        }
+        version.incrementAndGet();
+    }
+
+    private CompletableFuture<Void> appendToLog(LogRecord record) {
+        if (log == null) {
+            return null;
+        }
+        try {
+            return log.append(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Makes every change made so far durable in snapshot mode. A caller that waited for the lock while another
+    // snapshot was written returns at once if that snapshot started after its change; the rest write one together.
+    private void syncSnapshot() throws IOException {
+        long needed = version.get();
+        synchronized (snapshotLock) {
+            if (snapshotVersion < needed) {
+                writeSnapshot();
+            }
+        }
+    }
+
+    // Writes all entries to a temporary file and moves it over the snapshot file in one step.
+    private void writeSnapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long start = System.nanoTime();
+            // Updates bump the version after they are in the map, so everything up to here is in the iteration below
+            long covered = version.get();
+            Path target = Paths.get(filePath);
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            if (snapshotFormat == SnapshotFormat.BINARY) {
+                BinarySnapshot.write(temp, entries.values());
+            } else {
+                try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                    WeatherEntryCodec.writeArray(out, entries.values());
+                    out.getFD().sync();
+                }
+            }
+            long bytes = Files.size(temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshotVersion = covered;
+            metrics.recordSnapshotWrite(start, bytes);
+        }
+    }
+
+    // Result of a since-query: the changed entries and the Lamport time to pass as since next time.
+    public static class ChangeSet {
+        private final List<WeatherEntry> entries;
+        private final long highWater;
+
+        public ChangeSet(List<WeatherEntry> entries, long highWater) {
+            this.entries = entries;
+            this.highWater = highWater;
+        }
+
+        public List<WeatherEntry> getEntries() {
+            return entries;
+        }
+
+        public long getHighWater() {
+            return highWater;
+        }
+    }
+
+    // Handle for a write registered with beginWrite.
+    public static class WriteTicket implements Comparable<WriteTicket> {
+        private final long floor;
+        private final long seq;
+
+        private WriteTicket(long floor, long seq) {
+            this.floor = floor;
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(WriteTicket other) {
+            int byFloor = Long.compare(floor, other.floor);
+            return byFloor != 0 ? byFloor : Long.compare(seq, other.seq);
+        }
+    }
+
+    // Index key: an ordering value (Lamport timestamp or lastUpdated), then station id. A null id sorts before every station.
+    private static class IndexKey implements Comparable<IndexKey> {
+        private final long order;
+        private final String id;
+
+        IndexKey(long order, String id) {
+            this.order = order;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(IndexKey other) {
+            int byOrder = Long.compare(order, other.order);
+            if (byOrder != 0) return byOrder;
+            if (id == null) return other.id == null ? 0 : -1;
+            if (other.id == null) return 1;
+            return id.compareTo(other.id);
+        }
     }
-    
 }
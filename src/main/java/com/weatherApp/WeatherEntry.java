@@ -56,7 +56,7 @@ public class WeatherEntry {
     private int windSpdKt;
     
     // Lamport timestamp and last updated time
-    private int timestamp;
+    private long timestamp;
     private long lastUpdated;
 
     // Getters and Setters for all fields
@@ -199,11 +199,11 @@ public class WeatherEntry {
 		this.windSpdKt = windSpdKt;
 	}
 
-    public int getTimestamp() {
+    public long getTimestamp() {
         return timestamp;
     }
 
-    public void setTimestamp(int timestamp) {
+    public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
 
@@ -0,0 +1,412 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads and writes WeatherEntry JSON directly on Jackson's streaming parser and generator, without databind's
+// reflection or per-call serializer lookups. Field names are pre-encoded; when fields arrive in the order this codec
+// writes them, each one is matched with a single comparison against the expected name.
+// The wire format is the one databind produced: same field names and order, nulls written, unknown fields rejected.
+// One shared JsonFactory serves every component; it is thread-safe and recycles its buffers per thread.
+public final class WeatherEntryCodec {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final int TIMESTAMP = 0;
+    private static final int LAST_UPDATED = 1;
+    private static final int ID = 2;
+    private static final int NAME = 3;
+    private static final int STATE = 4;
+    private static final int TIME_ZONE = 5;
+    private static final int LAT = 6;
+    private static final int LON = 7;
+    private static final int LOCAL_DATE_TIME = 8;
+    private static final int LOCAL_DATE_TIME_FULL = 9;
+    private static final int AIR_TEMP = 10;
+    private static final int APPARENT_T = 11;
+    private static final int CLOUD = 12;
+    private static final int DEWPT = 13;
+    private static final int PRESS = 14;
+    private static final int REL_HUM = 15;
+    private static final int WIND_DIR = 16;
+    private static final int WIND_SPD_KMH = 17;
+    private static final int WIND_SPD_KT = 18;
+
+    // Field names in output order, indexed by the constants above
+    private static final SerializedString[] NAMES = {
+            new SerializedString("timestamp"), new SerializedString("lastUpdated"), new SerializedString("id"),
+            new SerializedString("name"), new SerializedString("state"), new SerializedString("time_zone"),
+            new SerializedString("lat"), new SerializedString("lon"), new SerializedString("local_date_time"),
+            new SerializedString("local_date_time_full"), new SerializedString("air_temp"),
+            new SerializedString("apparent_t"), new SerializedString("cloud"), new SerializedString("dewpt"),
+            new SerializedString("press"), new SerializedString("rel_hum"), new SerializedString("wind_dir"),
+            new SerializedString("wind_spd_kmh"), new SerializedString("wind_spd_kt")};
+    private static final Map<String, Integer> FIELDS = new HashMap<>();
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            FIELDS.put(NAMES[i].getValue(), i);
+        }
+    }
+
+    private WeatherEntryCodec() {
+    }
+
+    // Retrieves the shared factory, for callers that stream entries through their own parser or generator.
+    public static JsonFactory getFactory() {
+        return FACTORY;
+    }
+
+    // Creates a generator over a stream the caller owns; closing the generator only flushes it.
+    public static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = FACTORY.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    // Writes one entry as a JSON object, or null.
+    public static void write(JsonGenerator generator, WeatherEntry entry) throws IOException {
+        if (entry == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        writeNumber(generator, TIMESTAMP, entry.getTimestamp());
+        writeNumber(generator, LAST_UPDATED, entry.getLastUpdated());
+        writeString(generator, ID, entry.getId());
+        writeString(generator, NAME, entry.getName());
+        writeString(generator, STATE, entry.getState());
+        writeString(generator, TIME_ZONE, entry.getTimeZone());
+        writeNumber(generator, LAT, entry.getLat());
+        writeNumber(generator, LON, entry.getLon());
+        writeString(generator, LOCAL_DATE_TIME, entry.getLocalDateTime());
+        writeString(generator, LOCAL_DATE_TIME_FULL, entry.getLocalDateTimeFull());
+        writeNumber(generator, AIR_TEMP, entry.getAirTemp());
+        writeNumber(generator, APPARENT_T, entry.getApparentT());
+        writeString(generator, CLOUD, entry.getCloud());
+        writeNumber(generator, DEWPT, entry.getDewpt());
+        writeNumber(generator, PRESS, entry.getPress());
+        writeNumber(generator, REL_HUM, entry.getRelHum());
+        writeString(generator, WIND_DIR, entry.getWindDir());
+        writeNumber(generator, WIND_SPD_KMH, entry.getWindSpdKmh());
+        writeNumber(generator, WIND_SPD_KT, entry.getWindSpdKt());
+        generator.writeEndObject();
+    }
+
+    // Writes the entries as one JSON array.
+    public static void writeArray(JsonGenerator generator, Iterable<WeatherEntry> entries) throws IOException {
+        generator.writeStartArray();
+        for (WeatherEntry entry : entries) {
+            write(generator, entry);
+        }
+        generator.writeEndArray();
+    }
+
+    public static void writeArray(OutputStream out, Iterable<WeatherEntry> entries) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            writeArray(generator, entries);
+        }
+    }
+
+    public static String writeString(WeatherEntry entry) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            write(generator, entry);
+        }
+        return writer.toString();
+    }
+
+    public static String writeArrayString(Iterable<WeatherEntry> entries) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            writeArray(generator, entries);
+        }
+        return writer.toString();
+    }
+
+    public static byte[] writeBytes(WeatherEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generator = FACTORY.createGenerator(bytes)) {
+            write(generator, entry);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static byte[] writeArrayBytes(Iterable<WeatherEntry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generator = FACTORY.createGenerator(bytes)) {
+            writeArray(generator, entries);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Reads one entry from JSON text; JSON null gives null.
+    public static WeatherEntry readEntry(String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return readRootEntry(parser);
+        }
+    }
+
+    public static WeatherEntry readEntry(byte[] json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return readRootEntry(parser);
+        }
+    }
+
+    // Reads a JSON array of entries; JSON null gives null, and null elements are kept.
+    public static List<WeatherEntry> readList(String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return readRootList(parser);
+        }
+    }
+
+    public static List<WeatherEntry> readList(byte[] json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return readRootList(parser);
+        }
+    }
+
+    // Reads a JSON array of entries from a stream the caller owns.
+    public static List<WeatherEntry> readList(InputStream in) throws IOException {
+        try (JsonParser parser = createParser(in)) {
+            return readRootList(parser);
+        }
+    }
+
+    // Reads a sequence of root-level entries, such as newline-delimited JSON, until the stream ends.
+    public static List<WeatherEntry> readSequence(InputStream in) throws IOException {
+        List<WeatherEntry> entries = new ArrayList<>();
+        try (JsonParser parser = createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                entries.add(readValue(parser, token));
+            }
+        }
+        return entries;
+    }
+
+    // Reads the entry whose START_OBJECT (or VALUE_NULL) is the parser's current token, leaving it on END_OBJECT.
+    public static WeatherEntry read(JsonParser parser) throws IOException {
+        return readValue(parser, parser.currentToken());
+    }
+
+    private static JsonParser createParser(InputStream in) throws IOException {
+        JsonParser parser = FACTORY.createParser(in);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return parser;
+    }
+
+    private static WeatherEntry readRootEntry(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw new JsonParseException(parser, "No content to map due to end-of-input");
+        }
+        return readValue(parser, token);
+    }
+
+    private static List<WeatherEntry> readRootList(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw new JsonParseException(parser, "No content to map due to end-of-input");
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Cannot deserialize value of type `java.util.List<WeatherEntry>` from " + describe(token));
+        }
+        List<WeatherEntry> entries = new ArrayList<>();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JsonParseException(parser, "Unexpected end-of-input: expected close marker for Array");
+            }
+            entries.add(readValue(parser, token));
+        }
+        return entries;
+    }
+
+    private static WeatherEntry readValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Cannot deserialize value of type `com.weatherApp.WeatherEntry` from " + describe(token));
+        }
+        WeatherEntry entry = new WeatherEntry();
+        int expected = 0;
+        while (true) {
+            int field;
+            // Fast path: the next field is the one that follows the previous field in output order
+            if (expected < NAMES.length && parser.nextFieldName((SerializableString) NAMES[expected])) {
+                field = expected;
+            } else {
+                JsonToken next = expected < NAMES.length ? parser.currentToken() : parser.nextToken();
+                if (next == JsonToken.END_OBJECT) {
+                    return entry;
+                }
+                if (next != JsonToken.FIELD_NAME) {
+                    throw new JsonParseException(parser, "Unexpected end-of-input: expected close marker for Object");
+                }
+                Integer known = FIELDS.get(parser.currentName());
+                if (known == null) {
+                    throw new JsonParseException(parser, "Unrecognized field \"" + parser.currentName()
+                            + "\" (class com.weatherApp.WeatherEntry), not marked as ignorable");
+                }
+                field = known;
+            }
+            parser.nextToken();
+            readField(parser, entry, field);
+            expected = field + 1;
+        }
+    }
+
+    private static void readField(JsonParser parser, WeatherEntry entry, int field) throws IOException {
+        switch (field) {
+            case TIMESTAMP: entry.setTimestamp(readLong(parser)); break;
+            case LAST_UPDATED: entry.setLastUpdated(readLong(parser)); break;
+            case ID: entry.setId(readString(parser)); break;
+            case NAME: entry.setName(readString(parser)); break;
+            case STATE: entry.setState(readString(parser)); break;
+            case TIME_ZONE: entry.setTimeZone(readString(parser)); break;
+            case LAT: entry.setLat(readDouble(parser)); break;
+            case LON: entry.setLon(readDouble(parser)); break;
+            case LOCAL_DATE_TIME: entry.setLocalDateTime(readString(parser)); break;
+            case LOCAL_DATE_TIME_FULL: entry.setLocalDateTimeFull(readString(parser)); break;
+            case AIR_TEMP: entry.setAirTemp(readDouble(parser)); break;
+            case APPARENT_T: entry.setApparentT(readDouble(parser)); break;
+            case CLOUD: entry.setCloud(readString(parser)); break;
+            case DEWPT: entry.setDewpt(readDouble(parser)); break;
+            case PRESS: entry.setPress(readDouble(parser)); break;
+            case REL_HUM: entry.setRelHum(readInt(parser)); break;
+            case WIND_DIR: entry.setWindDir(readString(parser)); break;
+            case WIND_SPD_KMH: entry.setWindSpdKmh(readInt(parser)); break;
+            case WIND_SPD_KT: entry.setWindSpdKt(readInt(parser)); break;
+            default: throw new IllegalStateException("Unknown field " + field);
+        }
+    }
+
+    // Strings accept any scalar, as databind does; numbers and booleans keep their JSON text.
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != null && token.isScalarValue()) {
+            return parser.getText();
+        }
+        throw new JsonParseException(parser, "Cannot deserialize value of type `java.lang.String` from " + describe(token));
+    }
+
+    // Numbers accept numeric strings, and null or an empty string reads as zero.
+    private static double readDouble(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getDoubleValue();
+        }
+        String text = numericText(parser, token, "double");
+        try {
+            return text.isEmpty() ? 0 : Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new JsonParseException(parser, "Cannot deserialize value of type `double` from String \"" + text + "\": not a valid `double` value");
+        }
+    }
+
+    // Fractions are truncated, as with databind's default ACCEPT_FLOAT_AS_INT.
+    private static int readInt(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return (int) parser.getDoubleValue();
+        }
+        String text = numericText(parser, token, "int");
+        try {
+            return text.isEmpty() ? 0 : Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new JsonParseException(parser, "Cannot deserialize value of type `int` from String \"" + text + "\": not a valid `int` value");
+        }
+    }
+
+    private static long readLong(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return (long) parser.getDoubleValue();
+        }
+        String text = numericText(parser, token, "long");
+        try {
+            return text.isEmpty() ? 0 : Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new JsonParseException(parser, "Cannot deserialize value of type `long` from String \"" + text + "\": not a valid `long` value");
+        }
+    }
+
+    // Returns the trimmed text of a string value for a numeric field ("" for null), or fails for other tokens.
+    private static String numericText(JsonParser parser, JsonToken token, String type) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return "";
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText().trim();
+        }
+        throw new JsonParseException(parser, "Cannot deserialize value of type `" + type + "` from " + describe(token));
+    }
+
+    private static String describe(JsonToken token) {
+        if (token == null) return "end-of-input";
+        switch (token) {
+            case START_OBJECT: return "Object value";
+            case START_ARRAY: return "Array value";
+            case VALUE_STRING: return "String value";
+            case VALUE_TRUE:
+            case VALUE_FALSE: return "Boolean value";
+            case VALUE_NUMBER_INT: return "Integer value";
+            case VALUE_NUMBER_FLOAT: return "Floating-point value";
+            default: return token.name();
+        }
+    }
+
+    private static void writeString(JsonGenerator generator, int field, String value) throws IOException {
+        generator.writeFieldName(NAMES[field]);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, int field, double value) throws IOException {
+        generator.writeFieldName(NAMES[field]);
+        generator.writeNumber(value);
+    }
+
+    private static void writeNumber(JsonGenerator generator, int field, int value) throws IOException {
+        generator.writeFieldName(NAMES[field]);
+        generator.writeNumber(value);
+    }
+
+    private static void writeNumber(JsonGenerator generator, int field, long value) throws IOException {
+        generator.writeFieldName(NAMES[field]);
+        generator.writeNumber(value);
+    }
+}
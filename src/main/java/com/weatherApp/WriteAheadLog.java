@@ -0,0 +1,340 @@
+package com.weatherApp;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Append-only log of data store updates, split into numbered segment files next to the snapshot.
+// Appends are group-committed: a single flusher thread writes and forces each batch in one I/O.
+public class WriteAheadLog implements Closeable {
+    private static final String SEGMENT_SUFFIX = ".wal.";
+    public static final int DEFAULT_MAX_BATCH = 256;
+    public static final long DEFAULT_MAX_WAIT_MICROS = 0;
+
+    private final Path directory;
+    private final String segmentPrefix;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+
+    // Guards the batches waiting to be flushed
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private final Condition batchReady = batchLock.newCondition();
+    private final ArrayDeque<Batch> sealed = new ArrayDeque<>();
+    private Batch pending = new Batch();
+    private CompletableFuture<Void> lastCommit = CompletableFuture.completedFuture(null);
+    private long appendedSinceRotate;
+    private boolean running;
+    private volatile boolean closed;
+    private volatile Thread flusher;
+    private volatile ServerMetrics metrics = new ServerMetrics();
+
+    // Guards the active segment file
+    private final Object segmentLock = new Object();
+    private FileChannel channel;
+    private long segmentSeq;
+
+    public WriteAheadLog(String snapshotPath) {
+        this(snapshotPath, DEFAULT_MAX_BATCH, DEFAULT_MAX_WAIT_MICROS);
+    }
+
+    public WriteAheadLog(String snapshotPath, int maxBatch, long maxWaitMicros) {
+        Path snapshot = Paths.get(snapshotPath).toAbsolutePath();
+        this.directory = snapshot.getParent();
+        this.segmentPrefix = snapshot.getFileName() + SEGMENT_SUFFIX;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxWaitMicros));
+    }
+
+    // Sets where group-commit timings are recorded.
+    public void setMetrics(ServerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Opens a fresh segment numbered after any segments already on disk and starts the flusher.
+    public void open() throws IOException {
+        if (closed) {
+            throw new IOException("Write-ahead log is closed");
+        }
+        synchronized (segmentLock) {
+            if (channel != null && channel.isOpen()) {
+                return;
+            }
+            List<Path> existing = listSegments();
+            long lastSeq = existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1));
+            openSegment(lastSeq + 1);
+        }
+        batchLock.lock();
+        try {
+            if (!running) {
+                running = true;
+                flusher = new Thread(this::runFlusher, "wal-flusher");
+                flusher.setDaemon(true);
+                flusher.start();
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    // Queues a record for the next group commit and returns a future that completes once it is on disk.
+    public CompletableFuture<Void> append(LogRecord record) throws IOException {
+        if (flusher == null) {
+            open();
+        }
+        byte[] json = record.toJson();
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+
+        batchLock.lock();
+        try {
+            if (!running) {
+                throw new IOException("Write-ahead log is closed");
+            }
+            if (pending.buffers.isEmpty()) {
+                pending.firstAppendNanos = System.nanoTime();
+            }
+            pending.buffers.add(buffer);
+            CompletableFuture<Void> commit = pending.committed;
+            if (pending.buffers.size() >= maxBatch) {
+                sealed.add(pending);
+                pending = new Batch();
+            }
+            lastCommit = commit;
+            appendedSinceRotate++;
+            batchReady.signal();
+            return commit;
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    // Waits until everything appended so far is on disk.
+    public void sync() throws IOException {
+        CompletableFuture<Void> commit;
+        batchLock.lock();
+        try {
+            commit = lastCommit;
+        } finally {
+            batchLock.unlock();
+        }
+        await(commit);
+    }
+
+    // Waits for a commit future returned by append, rethrowing a failed write as an IOException.
+    public static void await(CompletableFuture<Void> commit) throws IOException {
+        try {
+            commit.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for log commit");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    // Returns true if records were appended since the last rotation.
+    public boolean hasPendingRecords() {
+        batchLock.lock();
+        try {
+            return appendedSinceRotate > 0;
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    // Switches appends to a new segment and returns the segments that preceded it.
+    public List<Path> rotate() throws IOException {
+        batchLock.lock();
+        try {
+            appendedSinceRotate = 0;
+        } finally {
+            batchLock.unlock();
+        }
+        synchronized (segmentLock) {
+            // Batches still queued are written to the new segment and replayed over the snapshot
+            closeSegment();
+            openSegment(segmentSeq + 1);
+            List<Path> older = new ArrayList<>();
+            for (Path segment : listSegments()) {
+                if (segmentNumber(segment) < segmentSeq) {
+                    older.add(segment);
+                }
+            }
+            return older;
+        }
+    }
+
+    // Feeds every record on disk to the consumer, oldest segment first.
+    public void replay(Consumer<LogRecord> consumer) throws IOException {
+        for (Path segment : listSegments()) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) continue;
+                    try {
+                        consumer.accept(LogRecord.fromJson(line));
+                    } catch (IOException e) {
+                        // A torn write at the tail of a segment; nothing after it was acknowledged
+                        System.err.println("Skipping unreadable log record in " + segment.getFileName() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    // Deletes segments whose records are covered by a durable snapshot.
+    public void deleteSegments(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    // Flushes outstanding batches, stops the flusher and closes the active segment.
+    @Override
+    public void close() throws IOException {
+        Thread stopping;
+        batchLock.lock();
+        try {
+            closed = true;
+            running = false;
+            stopping = flusher;
+            flusher = null;
+            batchReady.signalAll();
+        } finally {
+            batchLock.unlock();
+        }
+        if (stopping != null) {
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (segmentLock) {
+            closeSegment();
+        }
+    }
+
+    // Takes batches in order and commits each with one gathering write and one force.
+    private void runFlusher() {
+        while (true) {
+            Batch batch = nextBatch();
+            if (batch == null) {
+                return;
+            }
+            try {
+                long start = System.nanoTime();
+                long bytes = 0;
+                synchronized (segmentLock) {
+                    ByteBuffer[] buffers = batch.buffers.toArray(new ByteBuffer[0]);
+                    for (ByteBuffer buffer : buffers) {
+                        bytes += buffer.remaining();
+                    }
+                    long remaining = bytes;
+                    while (remaining > 0) {
+                        remaining -= channel.write(buffers);
+                    }
+                    channel.force(false);
+                }
+                metrics.recordWalCommit(start, bytes, batch.buffers.size());
+                batch.committed.complete(null);
+            } catch (IOException | RuntimeException e) {
+                batch.committed.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Blocks until a batch is full, has waited long enough, or the log is closing.
+    private Batch nextBatch() {
+        batchLock.lock();
+        try {
+            while (true) {
+                if (!sealed.isEmpty()) {
+                    return sealed.poll();
+                }
+                if (!pending.buffers.isEmpty()) {
+                    long waitNanos = pending.firstAppendNanos + maxWaitNanos - System.nanoTime();
+                    if (waitNanos <= 0 || !running) {
+                        Batch batch = pending;
+                        pending = new Batch();
+                        return batch;
+                    }
+                    batchReady.awaitNanos(waitNanos);
+                } else if (!running) {
+                    return null;
+                } else {
+                    batchReady.await();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void openSegment(long seq) throws IOException {
+        segmentSeq = seq;
+        channel = FileChannel.open(directory.resolve(segmentPrefix + seq),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, segmentPrefix + "*")) {
+            for (Path segment : stream) {
+                if (segmentNumber(segment) > 0) {
+                    segments.add(segment);
+                }
+            }
+        }
+        segments.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        return segments;
+    }
+
+    private long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(segmentPrefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Records queued for one commit, sharing a single completion future.
+    private static class Batch {
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        final CompletableFuture<Void> committed = new CompletableFuture<>();
+        long firstAppendNanos;
+    }
+}
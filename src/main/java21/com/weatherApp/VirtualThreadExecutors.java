@@ -0,0 +1,15 @@
+package com.weatherApp;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Virtual-thread executors for request lanes; compiled only by the java21 Maven profile and loaded reflectively.
+public final class VirtualThreadExecutors {
+    private VirtualThreadExecutors() {
+    }
+
+    // Creates an executor that starts one named virtual thread per task.
+    public static ExecutorService newPerTaskExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory());
+    }
+}
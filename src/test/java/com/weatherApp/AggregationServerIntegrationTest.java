@@ -6,11 +6,20 @@ import org.junit.jupiter.api.*;
 
 import static io.restassured.RestAssured.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import spark.Spark;
+import org.mockito.Mockito;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -289,4 +298,334 @@ public class AggregationServerIntegrationTest {
             .statusCode(400)
             .body(equalTo("Invalid Content-Type"));
     }
+
+    // Test case for retrieving selected stations with the id query parameter.
+    @Test
+    public void testGetWeatherDataByStationIds() {
+        for (String id : new String[]{"W205", "W206", "W207"}) {
+            WeatherEntry entry = new WeatherEntry();
+            entry.setId(id);
+            entry.setName("Test Station " + id);
+            entry.setLastUpdated(System.currentTimeMillis());
+
+            given()
+                .contentType(ContentType.JSON)
+                .header("Lamport-Time", "6")
+                .body(entry)
+            .when()
+                .put("/weather.json")
+            .then()
+                .statusCode(anyOf(is(200), is(201)));
+        }
+
+        // Single station
+        given()
+            .header("Lamport-Time", "7")
+            .queryParam("id", "W206")
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(200)
+            .contentType(ContentType.JSON)
+            .body("id", contains("W206"));
+
+        // Comma-separated list, unknown ids are skipped
+        given()
+            .header("Lamport-Time", "8")
+            .queryParam("id", "W207,W999,W205")
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(200)
+            .body("id", contains("W207", "W205"));
+    }
+
+    // Test case for retrieving only the stations changed since a Lamport time.
+    @Test
+    public void testGetWeatherDataSince() {
+        String highWater = given()
+            .header("Lamport-Time", "9")
+            .queryParam("since", "-1")
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(200)
+            .header("Lamport-High-Water", notNullValue())
+            .header("Station-Count", notNullValue())
+            .extract().header("Lamport-High-Water");
+
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId("W208");
+        entry.setName("Test Station W208");
+        entry.setLastUpdated(System.currentTimeMillis());
+        given()
+            .contentType(ContentType.JSON)
+            .header("Lamport-Time", "10")
+            .body(entry)
+        .when()
+            .put("/weather.json")
+        .then()
+            .statusCode(anyOf(is(200), is(201)));
+
+        given()
+            .header("Lamport-Time", "11")
+            .queryParam("since", highWater)
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(200)
+            .body("id", contains("W208"));
+
+        given()
+            .header("Lamport-Time", "12")
+            .queryParam("since", "abc")
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(400)
+            .body(equalTo("Invalid since parameter"));
+    }
+
+    // Test case for conditional GET: a matching If-None-Match gets 304 until the data changes.
+    @Test
+    public void testGetWeatherDataNotModified() {
+        String etag = given()
+            .header("Lamport-Time", "13")
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(200)
+            .header("ETag", matchesPattern("\"[0-9a-f]+-[0-9]+\""))
+            .extract().header("ETag");
+
+        given()
+            .header("Lamport-Time", "14")
+            .header("If-None-Match", etag)
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(304)
+            .header("ETag", equalTo(etag));
+
+        // The NDJSON representation of the same URL must not be served from the JSON tag
+        given()
+            .header("Lamport-Time", "14")
+            .header("Accept", "application/x-ndjson")
+            .header("If-None-Match", etag)
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(200)
+            .header("Vary", equalTo("Accept"))
+            .header("ETag", equalTo(etag.substring(0, etag.length() - 1) + "-nd\""));
+
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId("W209");
+        entry.setName("Test Station W209");
+        entry.setLastUpdated(System.currentTimeMillis());
+        given()
+            .contentType(ContentType.JSON)
+            .header("Lamport-Time", "15")
+            .body(entry)
+        .when()
+            .put("/weather.json")
+        .then()
+            .statusCode(anyOf(is(200), is(201)));
+
+        given()
+            .header("Lamport-Time", "16")
+            .header("If-None-Match", etag)
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)))
+            .body("id", hasItem("W209"));
+    }
+
+    // Test case for streaming the stations as newline-delimited JSON.
+    @Test
+    public void testGetWeatherDataNdjson() {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId("W210");
+        entry.setName("Test Station W210");
+        entry.setLastUpdated(System.currentTimeMillis());
+        given()
+            .contentType(ContentType.JSON)
+            .header("Lamport-Time", "17")
+            .body(entry)
+        .when()
+            .put("/weather.json")
+        .then()
+            .statusCode(anyOf(is(200), is(201)));
+
+        String body = given()
+            .header("Lamport-Time", "18")
+            .queryParam("format", "ndjson")
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(200)
+            .contentType(startsWith("application/x-ndjson"))
+            .extract().asString();
+
+        Assertions.assertTrue(body.endsWith("\n"), "Every line should be terminated");
+        Assertions.assertTrue(body.contains("\"id\":\"W210\""), "Stored station should be streamed");
+        for (String line : body.split("\n")) {
+            Assertions.assertTrue(line.startsWith("{") && line.endsWith("}"), "Each line should be one JSON object");
+        }
+    }
+
+    // Test case for uploading several stations in one PUT with a per-entry report.
+    @Test
+    public void testPutWeatherDataBatch() {
+        String body = "[{\"id\":\"W211\",\"name\":\"Batch A\"},{\"name\":\"No id\"},{\"id\":\"W212\",\"name\":\"Batch B\"}]";
+
+        given()
+            .contentType(ContentType.JSON)
+            .header("Lamport-Time", "19")
+            .body(body)
+        .when()
+            .put("/weather.json")
+        .then()
+            .statusCode(201)
+            .body("status", contains(201, 500, 201))
+            .body("id[0]", equalTo("W211"))
+            .body("error[1]", equalTo("Missing 'id'"));
+
+        given()
+            .header("Lamport-Time", "20")
+            .queryParam("id", "W211,W212")
+        .when()
+            .get("/weather.json")
+        .then()
+            .statusCode(200)
+            .body("id", contains("W211", "W212"));
+    }
+
+    // Test case for the update log a backup follows: changed entries in Lamport order, with replication headers.
+    @Test
+    public void testReplicationLog() {
+        String body = "[{\"id\":\"W213\",\"name\":\"Log A\"},{\"id\":\"W214\",\"name\":\"Log B\"}]";
+        given()
+            .contentType(ContentType.JSON)
+            .header("Lamport-Time", "21")
+            .body(body)
+        .when()
+            .put("/weather.json")
+        .then()
+            .statusCode(201);
+
+        long stampA = given().header("Lamport-Time", "22").queryParam("id", "W213")
+            .when().get("/weather.json").then().extract().jsonPath().getLong("[0].timestamp");
+
+        String log = given()
+            .queryParam("since", stampA - 1)
+        .when()
+            .get("/replication/log")
+        .then()
+            .statusCode(200)
+            .header("Replication-Role", "primary")
+            .header("Lamport-High-Water", notNullValue())
+            .header("Station-Count", notNullValue())
+            .extract().asString();
+
+        String[] lines = log.split("\n");
+        Assertions.assertTrue(lines[0].contains("\"id\":\"W213\""), "Log should start at the oldest change after since");
+        Assertions.assertTrue(lines[1].contains("\"id\":\"W214\""));
+
+        // This server is a primary; there is nothing to promote
+        when().post("/replication/promote").then().statusCode(409);
+    }
+
+    // Test that promotion needs the configured token, or a loopback caller when no token is set.
+    @Test
+    public void testPromoteRequiresTokenOrLoopback() {
+        Assertions.assertTrue(AggregationServer.mayPromote("", null, "127.0.0.1"));
+        Assertions.assertTrue(AggregationServer.mayPromote("", null, "0:0:0:0:0:0:0:1"));
+        Assertions.assertFalse(AggregationServer.mayPromote("", null, "192.168.1.20"));
+        Assertions.assertFalse(AggregationServer.mayPromote("", null, null));
+
+        Assertions.assertTrue(AggregationServer.mayPromote("s3cret", "s3cret", "192.168.1.20"));
+        Assertions.assertFalse(AggregationServer.mayPromote("s3cret", "wrong", "127.0.0.1"));
+        Assertions.assertFalse(AggregationServer.mayPromote("s3cret", null, "127.0.0.1"), "A token replaces the loopback rule");
+    }
+
+    // Test that concurrent PUTs in snapshot mode are all persisted without errors.
+    @Test
+    public void testConcurrentPutsInSnapshotMode() throws Exception {
+        ExecutorService senders = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> puts = new ArrayList<>();
+            for (int i = 0; i < 80; i++) {
+                String body = "{\"id\":\"W3" + String.format("%02d", i % 20) + "\",\"name\":\"Concurrent\"}";
+                puts.add(senders.submit(() -> given()
+                        .contentType(ContentType.JSON)
+                        .header("Lamport-Time", "30")
+                        .body(body)
+                    .when()
+                        .put("/weather.json")
+                        .statusCode()));
+            }
+            for (Future<Integer> put : puts) {
+                int status = put.get();
+                Assertions.assertTrue(status == 200 || status == 201, "Every PUT should be persisted");
+            }
+        } finally {
+            senders.shutdown();
+        }
+    }
+
+    // Test case for the metrics endpoint: requests are counted by status class and timed per route.
+    @Test
+    public void testMetrics() {
+        given()
+            .contentType(ContentType.JSON)
+            .header("Lamport-Time", "23")
+            .body("{\"id\":\"W215\",\"name\":\"Metrics\"}")
+        .when()
+            .put("/weather.json")
+        .then()
+            .statusCode(201);
+        given().when().get("/weather.json").then().statusCode(400);
+
+        given()
+        .when()
+            .get("/metrics")
+        .then()
+            .statusCode(200)
+            .contentType(ContentType.JSON)
+            .body("requests.put.status.2xx", greaterThanOrEqualTo(1))
+            .body("requests.put.latency.count", greaterThanOrEqualTo(1))
+            .body("requests.put.latency.p99Millis", greaterThan(0f))
+            .body("requests.get.status.4xx", greaterThanOrEqualTo(1))
+            .body("store.durability", equalTo("snapshot"))
+            .body("persistence.snapshotBytesWritten", greaterThan(0))
+            .body("persistence.snapshotWrite.count", greaterThanOrEqualTo(1))
+            .body("store.stations", greaterThanOrEqualTo(1))
+            .body("lamportClock", greaterThanOrEqualTo(23))
+            .body("lanes.read.rejected", equalTo(0));
+    }
+
+    // Test that a GET write failure is a 500 before the response is committed, and leaves the status alone after.
+    @Test
+    public void testFailResponseBeforeAndAfterCommit() {
+        HttpServletResponse raw = Mockito.mock(HttpServletResponse.class);
+        spark.Response response = Mockito.mock(spark.Response.class);
+        Mockito.when(response.raw()).thenReturn(raw);
+        spark.Request request = Mockito.mock(spark.Request.class);
+        Mockito.when(request.raw()).thenReturn(Mockito.mock(HttpServletRequest.class));
+
+        Mockito.when(raw.isCommitted()).thenReturn(false);
+        assertEquals("Failed to serialize data", AggregationServer.failResponse(request, response, new IOException("boom")));
+        Mockito.verify(raw).resetBuffer();
+        Mockito.verify(response).status(500);
+
+        Mockito.clearInvocations(response, raw);
+        Mockito.when(raw.isCommitted()).thenReturn(true);
+        assertEquals("", AggregationServer.failResponse(request, response, new IOException("boom")),
+                "Nothing may be appended to a committed body");
+        Mockito.verify(response, Mockito.never()).status(Mockito.anyInt());
+        Mockito.verify(raw, Mockito.never()).resetBuffer();
+    }
 }
@@ -0,0 +1,98 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Helper method to create a WeatherEntry object.
+    private WeatherEntry createWeatherEntry(String id) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setName("Test Station " + id);
+        entry.setState("Test State");
+        entry.setTimeZone("Test TimeZone");
+        entry.setLat(12.34);
+        entry.setLon(56.78);
+        entry.setLocalDateTime("2024-10-03T12:00:00");
+        entry.setLocalDateTimeFull("Thursday, October 3, 2024 12:00:00 PM");
+        entry.setAirTemp(25.0);
+        entry.setApparentT(27.0);
+        entry.setCloud("Sunny");
+        entry.setDewpt(15.0);
+        entry.setPress(1010.0);
+        entry.setRelHum(50);
+        entry.setWindDir("NE");
+        entry.setWindSpdKmh(10);
+        entry.setWindSpdKt(5);
+        entry.setTimestamp(7);
+        entry.setLastUpdated(1727929745923L);
+        return entry;
+    }
+
+    // Test that every field survives a write and memory-mapped read.
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path path = tempDir.resolve("weather_data.snap");
+        WeatherEntry full = createWeatherEntry("W100");
+        WeatherEntry sparse = new WeatherEntry();
+        sparse.setId("W101");
+
+        BinarySnapshot.write(path, List.of(full, sparse, createWeatherEntry("W102")));
+        assertTrue(BinarySnapshot.isBinarySnapshot(path), "File should carry the snapshot magic");
+
+        List<WeatherEntry> loaded = new ArrayList<>();
+        assertEquals(3, BinarySnapshot.read(path, loaded::add));
+        WeatherEntry read = loaded.get(0);
+        assertEquals(full.toString(), read.toString(), "All fields should round-trip");
+        assertNull(loaded.get(1).getName(), "Null strings should stay null");
+        assertSame(read.getState(), loaded.get(2).getState(), "Repeated strings should share one dictionary instance");
+    }
+
+    // Test that a corrupted file is rejected by the checksum.
+    @Test
+    public void testChecksumMismatch() throws IOException {
+        Path path = tempDir.resolve("weather_data.snap");
+        BinarySnapshot.write(path, List.of(createWeatherEntry("W100")));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(path, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> BinarySnapshot.read(path, entry -> { }));
+        assertTrue(e.getMessage().contains("checksum"), "Error should mention the checksum");
+    }
+
+    // Test that the store writes binary checkpoints and reloads them, with JSON export still available.
+    @Test
+    public void testStoreLoadsBinarySnapshot() throws IOException {
+        String snapshotPath = tempDir.resolve("weather_data.snap").toString();
+        WeatherDataStore store = new WeatherDataStore(snapshotPath);
+        store.setSnapshotFormat(WeatherDataStore.SnapshotFormat.BINARY);
+        store.saveData(createWeatherEntry("W100"), 3);
+        store.saveData(createWeatherEntry("W101"), 4);
+        store.checkpoint();
+        assertTrue(BinarySnapshot.isBinarySnapshot(Path.of(snapshotPath)));
+
+        WeatherDataStore restarted = new WeatherDataStore(snapshotPath);
+        restarted.loadPersistedData();
+        assertEquals(2, restarted.size(), "Both stations should be loaded from the binary snapshot");
+        assertEquals(4, restarted.getEntry("W101").getTimestamp());
+
+        String jsonPath = tempDir.resolve("export.json").toString();
+        restarted.exportJson(jsonPath);
+        WeatherDataStore imported = new WeatherDataStore(tempDir.resolve("other.json").toString());
+        imported.importJson(jsonPath);
+        assertEquals(2, imported.size(), "JSON export should import back");
+    }
+}
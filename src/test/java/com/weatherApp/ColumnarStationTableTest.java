@@ -0,0 +1,152 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarStationTableTest {
+
+    private static WeatherEntry station(String id, int seed) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setName("Station " + id);
+        entry.setState(seed % 2 == 0 ? "SA" : "VIC");
+        entry.setTimeZone("CST");
+        entry.setLat(-34.9 + seed);
+        entry.setLon(138.6);
+        entry.setLocalDateTime("15/04:00pm");
+        entry.setLocalDateTimeFull("20230715160000");
+        entry.setAirTemp(13.3);
+        entry.setApparentT(9.5);
+        entry.setCloud(seed % 3 == 0 ? null : "Partly cloudy");
+        entry.setDewpt(5.7);
+        entry.setPress(1023.9);
+        entry.setRelHum(60 + seed % 40);
+        entry.setWindDir("S");
+        entry.setWindSpdKmh(15);
+        entry.setWindSpdKt(8);
+        entry.setTimestamp(seed);
+        entry.setLastUpdated(1_700_000_000_000L + seed);
+        return entry;
+    }
+
+    // WeatherEntry equality is by id only; the string form covers every field.
+    private static void assertSameFields(WeatherEntry expected, WeatherEntry actual) {
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    public void testPutAndGetRoundTripsEveryField() {
+        ColumnarStationTable table = new ColumnarStationTable();
+        WeatherEntry entry = station("IDS60901", 3);
+
+        assertNull(table.put(entry.getId(), entry));
+
+        WeatherEntry stored = table.get("IDS60901");
+        assertSameFields(entry, stored);
+        assertNotSame(entry, stored, "Rows are materialized into new objects");
+        assertNull(table.get("missing"));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        ColumnarStationTable table = new ColumnarStationTable();
+        table.put("A", station("A", 1));
+        WeatherEntry update = station("A", 2);
+
+        WeatherEntry previous = table.put("A", update);
+
+        assertEquals(1, previous.getTimestamp());
+        assertSameFields(update, table.get("A"));
+        assertSameFields(update, table.remove("A"));
+        assertFalse(table.containsKey("A"));
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    public void testComputeStoresOrRemoves() {
+        ColumnarStationTable table = new ColumnarStationTable();
+        table.compute("A", (id, existing) -> {
+            assertNull(existing);
+            return station(id, 1);
+        });
+        table.computeIfPresent("A", (id, existing) -> existing.getTimestamp() == 1 ? null : existing);
+
+        assertEquals(0, table.size());
+        assertNull(table.computeIfPresent("A", (id, existing) -> fail("Absent station should not be computed")));
+    }
+
+    // Many inserts and removes against a HashMap, so slot reuse, growth and index deletion are all exercised.
+    @Test
+    public void testMatchesHashMapUnderChurn() {
+        ColumnarStationTable table = new ColumnarStationTable();
+        Map<String, WeatherEntry> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            String id = "S" + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, table.remove(id) != null);
+            } else {
+                WeatherEntry entry = station(id, i);
+                expected.put(id, entry);
+                table.put(id, entry);
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+        for (WeatherEntry entry : expected.values()) {
+            assertSameFields(entry, table.get(entry.getId()));
+        }
+        List<WeatherEntry> iterated = new ArrayList<>(table.values());
+        assertEquals(expected.size(), iterated.size());
+        for (WeatherEntry entry : iterated) {
+            assertSameFields(expected.get(entry.getId()), entry);
+        }
+    }
+
+    @Test
+    public void testDictionaryOverflowKeepsValues() {
+        ColumnarStationTable table = new ColumnarStationTable();
+        int stations = ColumnarStationTable.MAX_DICTIONARY_SIZE + 100;
+        for (int i = 0; i < stations; i++) {
+            WeatherEntry entry = station("S" + i, i);
+            entry.setCloud("cloud-" + i);
+            table.put(entry.getId(), entry);
+        }
+
+        assertEquals("cloud-0", table.get("S0").getCloud());
+        assertEquals("cloud-" + (stations - 1), table.get("S" + (stations - 1)).getCloud());
+        assertTrue(table.getDictionarySize() <= 4 * ColumnarStationTable.MAX_DICTIONARY_SIZE);
+    }
+
+    @Test
+    public void testClear() {
+        ColumnarStationTable table = new ColumnarStationTable();
+        for (int i = 0; i < 3_000; i++) {
+            table.put("S" + i, station("S" + i, i));
+        }
+
+        table.clear();
+
+        assertEquals(0, table.size());
+        assertNull(table.get("S1"));
+        table.put("S1", station("S1", 1));
+        assertEquals(1, table.size());
+    }
+
+    // The whole WeatherDataStore suite, run on the columnar layout.
+    @Nested
+    public class ColumnarStore extends WeatherDataStoreTest {
+        @Override
+        protected WeatherDataStore newStore(String path) {
+            return new WeatherDataStore(path, WeatherDataStore.Layout.COLUMNAR);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistentHashRingTest {
+
+    private static final List<String> THREE_SHARDS = List.of("http://localhost:4571", "http://localhost:4572", "http://localhost:4573");
+
+    @Test
+    public void testSameIdAlwaysMapsToSameShard() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE_SHARDS);
+        ConsistentHashRing rebuilt = new ConsistentHashRing(THREE_SHARDS);
+
+        for (int i = 0; i < 1000; i++) {
+            String id = "IDS" + i;
+            assertEquals(ring.shardFor(id), ring.shardFor(id));
+            assertEquals(ring.shardFor(id), rebuilt.shardFor(id), "Every router should agree on the owner");
+            assertEquals(THREE_SHARDS.get(ring.shardIndexFor(id)), ring.shardFor(id));
+        }
+    }
+
+    @Test
+    public void testSpreadsStationsEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE_SHARDS);
+        Map<String, Integer> counts = new HashMap<>();
+        int stations = 30_000;
+        for (int i = 0; i < stations; i++) {
+            counts.merge(ring.shardFor("IDS" + (60000 + i)), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - stations / 3) < stations / 3 * 0.2, "Shard load should be within 20%: " + counts);
+        }
+    }
+
+    @Test
+    public void testAddingShardOnlyMovesStationsToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(THREE_SHARDS.subList(0, 2));
+        ConsistentHashRing after = new ConsistentHashRing(THREE_SHARDS);
+        int moved = 0;
+        int stations = 10_000;
+        for (int i = 0; i < stations; i++) {
+            String id = "IDS" + i;
+            if (!before.shardFor(id).equals(after.shardFor(id))) {
+                assertEquals(THREE_SHARDS.get(2), after.shardFor(id), "A station may only move to the new shard");
+                moved++;
+            }
+        }
+        assertTrue(moved > stations / 5 && moved < stations / 2, "About a third of the stations should move: " + moved);
+    }
+
+    @Test
+    public void testRejectsEmptyShardList() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of()));
+    }
+}
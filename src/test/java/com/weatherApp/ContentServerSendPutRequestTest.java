@@ -3,18 +3,33 @@ package com.weatherApp;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
 public class ContentServerSendPutRequestTest {
     private HttpService mockHttpService;
 
+    @TempDir
+    Path tempDir;
+
     @BeforeEach
     public void setUp() {
-        mockHttpService = mock(HttpService.class);
+        // Real default methods, so sendPutAsync goes through the stubbed sendPut
+        mockHttpService = mock(HttpService.class, CALLS_REAL_METHODS);
         ContentServer.setHttpService(mockHttpService);
+        // Short backoff and a fresh circuit breaker for each test
+        ContentServer.setRetryScheduler(new RetryScheduler(3, 10, 50, 5, 1000));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ContentServer.setSpool(null, 500);
     }
 
     @Test
@@ -25,10 +40,10 @@ public class ContentServerSendPutRequestTest {
         entry.setId("W001");
 
         // Use serverUrl without appending "/weather.json"
-        when(mockHttpService.sendPut(eq(serverUrl), anyString(), anyInt())).thenReturn(201);
+        when(mockHttpService.sendPut(eq(serverUrl), anyString(), anyLong())).thenReturn(201);
 
         ContentServer.sendPutRequest(serverUrl, entry);
-        verify(mockHttpService, times(1)).sendPut(eq(serverUrl), anyString(), anyInt());
+        verify(mockHttpService, times(1)).sendPut(eq(serverUrl), anyString(), anyLong());
     }
 
     @Test
@@ -39,13 +54,13 @@ public class ContentServerSendPutRequestTest {
         entry.setId("W001");
 
         // First attempt throws IOException, second attempt returns 200
-        when(mockHttpService.sendPut(eq(serverUrl), anyString(), anyInt()))
+        when(mockHttpService.sendPut(eq(serverUrl), anyString(), anyLong()))
             .thenThrow(new IOException("Simulated Connection Error"))
             .thenReturn(200);
 
         ContentServer.sendPutRequest(serverUrl, entry);
         // sendPut is called twice: initial attempt + one retry
-        verify(mockHttpService, times(2)).sendPut(eq(serverUrl), anyString(), anyInt());
+        verify(mockHttpService, times(2)).sendPut(eq(serverUrl), anyString(), anyLong());
     }
 
     @Test
@@ -56,7 +71,7 @@ public class ContentServerSendPutRequestTest {
         entry.setId("W001");
 
         // All attempts throw IOException
-        when(mockHttpService.sendPut(eq(serverUrl), anyString(), anyInt()))
+        when(mockHttpService.sendPut(eq(serverUrl), anyString(), anyLong()))
             .thenThrow(new IOException("Simulated Connection Error"))
             .thenThrow(new IOException("Simulated Connection Error"))
             .thenThrow(new IOException("Simulated Connection Error"))
@@ -64,6 +79,49 @@ public class ContentServerSendPutRequestTest {
 
         ContentServer.sendPutRequest(serverUrl, entry);
         // sendPut is called four times: initial attempt + three retries
-        verify(mockHttpService, times(4)).sendPut(eq(serverUrl), anyString(), anyInt());
+        verify(mockHttpService, times(4)).sendPut(eq(serverUrl), anyString(), anyLong());
+    }
+
+    @Test
+    public void testSendBatchPutRequest() throws IOException {
+        String serverUrl = "http://localhost:4567";
+        WeatherEntry first = new WeatherEntry();
+        first.setId("W001");
+        WeatherEntry second = new WeatherEntry();
+        second.setId("W002");
+
+        when(mockHttpService.sendPut(eq(serverUrl), anyString(), anyLong())).thenReturn(201);
+
+        ContentServer.sendBatchPutRequest(serverUrl, List.of(first, second));
+        // Both stations travel in one PUT whose body is a JSON array
+        verify(mockHttpService, times(1)).sendPut(eq(serverUrl), startsWith("["), anyLong());
+        verify(mockHttpService, times(1)).sendPut(eq(serverUrl), contains("W002"), anyLong());
+    }
+
+    @Test
+    public void testFailedUploadIsSpooledAndSentOnceServerAnswers() throws IOException {
+        String serverUrl = "http://localhost:4567";
+        UploadSpool spool = new UploadSpool(tempDir.resolve("spool.journal"));
+        spool.open();
+        ContentServer.setSpool(spool, 500);
+        WeatherEntry stale = new WeatherEntry();
+        stale.setId("W001");
+        WeatherEntry fresh = new WeatherEntry();
+        fresh.setId("W002");
+
+        when(mockHttpService.sendPut(eq(serverUrl), anyString(), anyLong()))
+            .thenThrow(new IOException("Simulated Connection Error"));
+        ContentServer.sendPutRequest(serverUrl, stale);
+        assertEquals(1, spool.size(), "The update should be kept after every retry failed");
+
+        reset(mockHttpService);
+        when(mockHttpService.sendPut(eq(serverUrl), anyString(), anyLong())).thenReturn(201);
+        ContentServer.sendPutRequest(serverUrl, fresh);
+        ContentServer.awaitSpoolDrain();
+
+        // The success shows the server is back, so the spooled update follows as a batch
+        verify(mockHttpService, times(1)).sendPut(eq(serverUrl), startsWith("[{"), anyLong());
+        assertEquals(0, spool.size());
+        spool.close();
     }
 }
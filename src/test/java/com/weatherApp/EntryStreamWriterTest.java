@@ -0,0 +1,60 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntryStreamWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EntryStreamWriter writer = new EntryStreamWriter();
+
+    // Helper method to create a WeatherEntry object.
+    private WeatherEntry createWeatherEntry(String id) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setName("Test Station " + id);
+        entry.setAirTemp(20.5);
+        return entry;
+    }
+
+    // Test that the streamed array matches what ObjectMapper produces for the whole list.
+    @Test
+    public void testWriteArray() throws IOException {
+        List<WeatherEntry> entries = List.of(createWeatherEntry("W100"), createWeatherEntry("W101"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeArray(out, entries);
+
+        assertEquals(objectMapper.writeValueAsString(entries), out.toString(StandardCharsets.UTF_8));
+        List<WeatherEntry> parsed = objectMapper.readValue(out.toByteArray(), new TypeReference<List<WeatherEntry>>() {});
+        assertEquals(2, parsed.size());
+        assertEquals("W101", parsed.get(1).getId());
+    }
+
+    // Test that an empty collection is written as an empty array.
+    @Test
+    public void testWriteEmptyArray() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeArray(out, List.of());
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    // Test that NDJSON output holds one parseable entry per line.
+    @Test
+    public void testWriteNdjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeNdjson(out, List.of(createWeatherEntry("W100"), createWeatherEntry("W101")));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length, "Each entry should be on its own line");
+        assertEquals("W100", objectMapper.readValue(lines[0], WeatherEntry.class).getId());
+        assertEquals("W101", objectMapper.readValue(lines[1], WeatherEntry.class).getId());
+    }
+}
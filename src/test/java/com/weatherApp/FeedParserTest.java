@@ -0,0 +1,168 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeedParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static FeedParser parse(String feed) {
+        return FeedParser.of(feed.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSplitsRecordsOnIdLines() {
+        FeedParser feed = parse("id:W001\nname:Alpha\nair_temp:25.5\n"
+                + "id:W002\r\nname: Beta \r\nrel_hum:-3\r\n"
+                + "id:W003\nlat:-33.865\nlon:151.209\n");
+
+        List<WeatherEntry> entries = feed.readAll();
+
+        assertEquals(3, entries.size());
+        assertEquals("W001", entries.get(0).getId());
+        assertEquals(25.5, entries.get(0).getAirTemp());
+        assertEquals("Beta", entries.get(1).getName(), "Values should be trimmed, including a trailing \\r");
+        assertEquals(-3, entries.get(1).getRelHum());
+        assertEquals(-33.865, entries.get(2).getLat());
+        assertEquals(151.209, entries.get(2).getLon());
+        assertTrue(feed.getMalformed().isEmpty());
+    }
+
+    @Test
+    public void testFieldsBeforeIdBelongToTheSameRecord() {
+        List<WeatherEntry> entries = parse("name:Alpha\nid:W001\nair_temp:1\n").readAll();
+
+        assertEquals(1, entries.size());
+        assertEquals("Alpha", entries.get(0).getName());
+        assertEquals(1.0, entries.get(0).getAirTemp());
+    }
+
+    @Test
+    public void testIdNotOnFirstLineDoesNotMergeRecords() {
+        FeedParser feed = parse("name:Alpha\nid:W001\nair_temp:1\n"
+                + "name:Beta\nid:W002\nair_temp:2\n"
+                + "name:Gamma\nid:W003\n");
+
+        List<WeatherEntry> entries = feed.readAll();
+
+        assertEquals(3, entries.size());
+        assertEquals("W001", entries.get(0).getId());
+        assertEquals("Alpha", entries.get(0).getName(), "The next record's name must not overwrite this one");
+        assertEquals(1.0, entries.get(0).getAirTemp());
+        assertEquals("Beta", entries.get(1).getName());
+        assertEquals(2.0, entries.get(1).getAirTemp());
+        assertEquals("Gamma", entries.get(2).getName());
+        assertTrue(feed.getMalformed().isEmpty());
+    }
+
+    @Test
+    public void testBlankLineEndsRecord() {
+        FeedParser feed = parse("id:W001\nname:Alpha\n\nstate:SA\nid:W002\n  \n\ncloud:Clear\n");
+
+        List<WeatherEntry> entries = feed.readAll();
+
+        assertEquals(2, entries.size());
+        assertNull(entries.get(0).getState(), "Fields after a blank line belong to the next record");
+        assertEquals("SA", entries.get(1).getState());
+        assertNull(entries.get(1).getCloud());
+        assertEquals(1, feed.getMalformed().size(), "A trailing record without an id is reported");
+        assertEquals(8, feed.getMalformed().get(0).getLine());
+    }
+
+    @Test
+    public void testCollectsMalformedRecordsWithoutThrowing() {
+        FeedParser feed = parse("id:W001\nair_temp:hot\n"
+                + "id:W002\nair_temp:20\n"
+                + "id:\nname:No Id\n"
+                + "id:W004\nwind_spd_kmh:99999999999\n"
+                + "id:W005\npress:1.2.3\n");
+
+        List<WeatherEntry> entries = feed.readAll();
+
+        assertEquals(1, entries.size());
+        assertEquals("W002", entries.get(0).getId());
+        List<FeedParser.Malformed> malformed = feed.getMalformed();
+        assertEquals(4, malformed.size());
+        assertEquals(1, malformed.get(0).getLine());
+        assertEquals("W001", malformed.get(0).getId());
+        assertEquals("Invalid value for air_temp: 'hot'", malformed.get(0).getMessage());
+        assertEquals("Missing 'id' in weather data.", malformed.get(1).getMessage());
+        assertEquals(5, malformed.get(1).getLine());
+        assertEquals("W004", malformed.get(2).getId());
+        assertEquals("W005", malformed.get(3).getId());
+    }
+
+    @Test
+    public void testParsesNumbersLikeDoubleParseDouble() {
+        String[] values = {"0", "-0.5", "+12.25", "1015.2", ".5", "5.", "-118.25", "123456.789012345",
+                "0.1234567890123456789", "1e3", "-2.5E-2"};
+        StringBuilder feed = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            feed.append("id:W").append(i).append("\ndewpt:").append(values[i]).append('\n');
+        }
+
+        List<WeatherEntry> entries = parse(feed.toString()).readAll();
+
+        assertEquals(values.length, entries.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.parseDouble(values[i]), entries.get(i).getDewpt(), "Value " + values[i]);
+        }
+    }
+
+    @Test
+    public void testParsesLazily() {
+        FeedParser feed = parse("id:W001\nair_temp:x\nid:W002\nid:W003\nair_temp:y\n");
+        Iterator<WeatherEntry> entries = feed.iterator();
+
+        assertEquals("W002", entries.next().getId());
+        assertEquals(1, feed.getMalformed().size(), "Only the records read so far should have been parsed");
+        assertFalse(entries.hasNext());
+        assertEquals(2, feed.getMalformed().size());
+    }
+
+    @Test
+    public void testReadsLargeMappedFeed() throws IOException {
+        Path file = tempDir.resolve("feed.txt");
+        StringBuilder feed = new StringBuilder();
+        int stations = 20_000;
+        for (int i = 0; i < stations; i++) {
+            feed.append("id:W").append(i).append("\nname:Station ").append(i)
+                    .append("\nair_temp:").append(i % 40).append(".5\nwind_spd_kmh:").append(i % 80).append('\n');
+        }
+        Files.writeString(file, feed);
+        assertTrue(Files.size(file) >= 1 << 20, "The feed should be large enough to be memory-mapped");
+
+        try (FeedParser parser = FeedParser.open(file)) {
+            int count = 0;
+            for (WeatherEntry entry : parser) {
+                assertEquals("W" + count, entry.getId());
+                assertEquals(count % 40 + 0.5, entry.getAirTemp());
+                assertEquals(count % 80, entry.getWindSpdKmh());
+                count++;
+            }
+            assertEquals(stations, count);
+        }
+    }
+
+    @Test
+    public void testReadFileReturnsFirstStationOfFeed() throws IOException {
+        Path file = tempDir.resolve("feed.txt");
+        Files.writeString(file, "id:W001\nname:Alpha\nid:W002\nname:Beta\n");
+
+        WeatherEntry entry = ContentServer.readFile(file.toString());
+
+        assertEquals("W001", entry.getId());
+        assertEquals("Alpha", entry.getName());
+    }
+}
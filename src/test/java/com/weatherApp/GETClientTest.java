@@ -4,12 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -113,6 +115,72 @@ public class GETClientTest {
         assertEquals("", errContent.toString());
     }
 
+    // Test that a 304 response reuses the entries cached with the previous ETag.
+    @Test
+    public void testSendGetRequestNotModifiedReusesCache() throws Exception {
+        String jsonResponse = objectMapper.writeValueAsString(List.of(createWeatherEntry("W300")));
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .addHeader("Lamport-Time", "5")
+                .addHeader("ETag", "\"42\"")
+                .setBody(jsonResponse)
+                .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(304)
+                .addHeader("Lamport-Time", "6")
+                .addHeader("ETag", "\"42\""));
+
+        String serverUrl = mockWebServer.url("/").toString();
+        GETClient.main(new String[]{serverUrl, "W300"});
+        String firstOutput = outContent.toString();
+        outContent.reset();
+        GETClient.main(new String[]{serverUrl, "W300"});
+
+        assertTrue(firstOutput.startsWith("ID: W300"), "First poll should display the station");
+        assertEquals(firstOutput, outContent.toString(), "Unchanged poll should display the cached station");
+        assertEquals("", errContent.toString());
+
+        RecordedRequest last = null;
+        RecordedRequest next;
+        while ((next = mockWebServer.takeRequest(100, TimeUnit.MILLISECONDS)) != null) {
+            last = next;
+        }
+        assertNotNull(last);
+        assertEquals("\"42\"", last.getHeader("If-None-Match"), "Second poll should send the cached ETag");
+    }
+
+    // Test that the Lamport-Time of a 304 response still advances the client's clock.
+    @Test
+    public void testNotModifiedUpdatesClock() throws Exception {
+        String jsonResponse = objectMapper.writeValueAsString(List.of(createWeatherEntry("W310")));
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .addHeader("Lamport-Time", "5")
+                .addHeader("ETag", "\"43\"")
+                .setBody(jsonResponse)
+                .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(304)
+                .addHeader("Lamport-Time", "1000000")
+                .addHeader("ETag", "\"43\""));
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(304)
+                .addHeader("ETag", "\"43\""));
+
+        String serverUrl = mockWebServer.url("/").toString();
+        for (int i = 0; i < 3; i++) {
+            GETClient.main(new String[]{serverUrl, "W310"});
+        }
+
+        RecordedRequest last = null;
+        RecordedRequest next;
+        while ((next = mockWebServer.takeRequest(100, TimeUnit.MILLISECONDS)) != null) {
+            last = next;
+        }
+        assertNotNull(last);
+        assertTrue(Long.parseLong(last.getHeader("Lamport-Time")) > 1000000, "Poll after a 304 should be stamped past its Lamport-Time");
+    }
+
     // Test sending a GET request and receiving 204 No Content.
     @Test
     public void testSendGetRequestNoContent() throws IOException {
@@ -0,0 +1,84 @@
+package com.weatherApp;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpClientServiceTest {
+
+    private MockWebServer mockWebServer;
+    private String serverUrl;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        serverUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    // Test that a PUT carries the JSON body and Lamport time and returns the response code.
+    @Test
+    public void testSendPut() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201).setBody("Data Received"));
+
+        int responseCode = new HttpClientService().sendPut(serverUrl, "{\"id\":\"W100\"}", 7);
+
+        assertEquals(201, responseCode);
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("PUT", request.getMethod());
+        assertEquals("/weather.json", request.getPath());
+        assertEquals("7", request.getHeader("Lamport-Time"));
+        assertTrue(request.getHeader("Content-Type").startsWith("application/json"));
+        assertEquals("{\"id\":\"W100\"}", request.getBody().readUtf8());
+    }
+
+    // Test that several async uploads can be in flight and later calls reuse the pooled connection.
+    @Test
+    public void testSendPutAsyncReusesConnection() throws Exception {
+        int uploads = 5;
+        for (int i = 0; i < uploads; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("Data Received"));
+        }
+        HttpClientService service = new HttpClientService();
+
+        // Warm one connection, then issue the rest sequentially over it
+        assertEquals(200, service.sendPutAsync(serverUrl, "{}", 1).get(5, TimeUnit.SECONDS));
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 1; i < uploads; i++) {
+            futures.add(service.sendPutAsync(serverUrl, "{}", i + 1));
+            futures.get(futures.size() - 1).get(5, TimeUnit.SECONDS);
+        }
+        for (CompletableFuture<Integer> future : futures) {
+            assertEquals(200, future.join());
+        }
+
+        mockWebServer.takeRequest();
+        RecordedRequest last = null;
+        for (int i = 1; i < uploads; i++) {
+            last = mockWebServer.takeRequest();
+        }
+        assertTrue(last.getSequenceNumber() > 0, "Later uploads should reuse the keep-alive connection");
+    }
+
+    // Test that a refused connection fails the future with an IOException.
+    @Test
+    public void testSendPutConnectionFailure() throws IOException {
+        mockWebServer.shutdown();
+        HttpClientService service = new HttpClientService();
+        assertThrows(IOException.class, () -> service.sendPut(serverUrl, "{}", 1));
+    }
+}
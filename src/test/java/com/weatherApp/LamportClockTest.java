@@ -3,6 +3,9 @@ package com.weatherApp;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class LamportClockTest {
 
     @Test
@@ -99,7 +102,39 @@ public class LamportClockTest {
         // Then t2: time = max(6,3)+1=7
         // Or if t2 runs first: time = max(1,3)+1=4, then t1: max(4,5)+1=6
         // So final time is either 6 or 7, depending on thread execution
-        int finalTime = clock.getTime();
+        long finalTime = clock.getTime();
         assertTrue(finalTime == 6 || finalTime == 7, "Final time should be either 6 or 7");
     }
+
+    @Test
+    public void testUpdateAndGetReturnsNewTime() {
+        LamportClock clock = new LamportClock();
+        assertEquals(1, clock.tickAndGet(), "tickAndGet should return the incremented time");
+        assertEquals(6, clock.updateAndGet(5), "updateAndGet should return max(time, received) + 1");
+        assertEquals(7, clock.updateAndGet(2), "A lower received time should still advance the clock");
+        assertEquals(7, clock.getTime());
+    }
+
+    @Test
+    public void testConcurrentStampsAreUnique() throws InterruptedException {
+        LamportClock clock = new LamportClock();
+        int threads = 8;
+        int perThread = 10_000;
+        Set<Long> stamps = ConcurrentHashMap.newKeySet();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long offset = t * 3L;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    long stamp = (i % 2 == 0) ? clock.tickAndGet() : clock.updateAndGet(i + offset);
+                    assertTrue(stamps.add(stamp), "Stamp " + stamp + " was handed out twice");
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * perThread, stamps.size(), "Every operation should get its own stamp");
+    }
 }
@@ -0,0 +1,80 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtQuantile(0.99));
+        assertEquals(0, histogram.getMeanNanos());
+    }
+
+    @Test
+    public void testQuantilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        assertEquals(5_000_500, histogram.getMeanNanos(), 1);
+        assertWithin(5_000_000, histogram.getValueAtQuantile(0.5));
+        assertWithin(9_900_000, histogram.getValueAtQuantile(0.99));
+        assertWithin(9_990_000, histogram.getValueAtQuantile(0.999));
+        assertEquals(10_000_000, histogram.getValueAtQuantile(1.0));
+    }
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        long[] values = {0, 1, 31, 32, 33, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= value, "Bucket should hold " + value);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBound(bucket - 1) < value, "Bucket should be the first for " + value);
+        }
+    }
+
+    @Test
+    public void testNegativeDurationCountsAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+
+    @Test
+    public void testRecordDoesNotAllocate() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        // Warm up so the loop is compiled before it is measured
+        for (int i = 0; i < 100_000; i++) {
+            histogram.record(i);
+        }
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            histogram.record(i * 37L);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Allow for the measuring call itself; any per-record allocation would be megabytes
+        assertTrue(allocated < 1_024, "record() allocated " + allocated + " bytes");
+    }
+
+    // Asserts a reported quantile is within the histogram's ~3% bucket precision of the expected value.
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.035, "Expected about " + expected + " but got " + actual);
+    }
+}
@@ -0,0 +1,117 @@
+package com.weatherApp;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadGeneratorTest {
+
+    private MockWebServer mockWebServer;
+    private String serverUrl;
+    private final Set<String> stationsSeen = ConcurrentHashMap.newKeySet();
+    private volatile long responseDelayMillis;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if ("PUT".equals(request.getMethod())) {
+                    String body = request.getBody().readUtf8();
+                    stationsSeen.add(body.substring(body.indexOf("LOAD"), body.indexOf('"', body.indexOf("LOAD"))));
+                    return new MockResponse().setResponseCode(201).setHeadersDelay(responseDelayMillis, TimeUnit.MILLISECONDS);
+                }
+                if (request.getPath().startsWith("/weather.json")) {
+                    return new MockResponse().setResponseCode(503);
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        mockWebServer.start();
+        serverUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void testOpenLoopSendsAtConfiguredRate() throws Exception {
+        LoadGenerator generator = new LoadGenerator(serverUrl, new HttpClientService(), 5, 4, 10, 2, 5,
+                LoadGenerator.Mode.OPEN, 1000);
+
+        generator.run(1000);
+
+        // 5 servers x 10/s and 2 readers x 5/s for one second
+        assertEquals(50, generator.getPuts().getSent());
+        assertEquals(10, generator.getGets().getSent());
+        assertEquals(50, generator.getPuts().getSucceeded());
+        assertEquals(20, stationsSeen.size(), "Every station of every content server should be updated");
+        assertEquals(10, generator.getGets().getHttpErrors(), "503 answers count as errors");
+        assertEquals(1.0, generator.getGets().getErrorRate());
+        assertEquals(50, generator.getPuts().getLatency().getCount());
+    }
+
+    @Test
+    public void testOpenLoopQueuesRequestsBeyondMaxInFlight() throws Exception {
+        responseDelayMillis = 200;
+        // One request in flight at a time: 20 requests due over one second, each taking 200 ms to answer
+        LoadGenerator generator = new LoadGenerator(serverUrl, new HttpClientService(), 1, 1, 20, 0, 0,
+                LoadGenerator.Mode.OPEN, 1);
+
+        generator.run(1000);
+
+        assertEquals(20, generator.getPuts().getSent(), "Requests due while the limit is reached should wait, not be dropped");
+        assertEquals(20, generator.getPuts().getSucceeded());
+        assertTrue(generator.getPuts().getQueued() > 0);
+        // The last request is due at 0.95 s but only answered after about 4 s of serialized 200 ms responses
+        LatencyHistogram latency = generator.getPuts().getLatency();
+        assertEquals(20, latency.getCount());
+        assertTrue(latency.getValueAtQuantile(0.99) >= TimeUnit.MILLISECONDS.toNanos(2500),
+                "Waiting for a slot should count as latency, p99 was " + latency.getValueAtQuantile(0.99));
+    }
+
+    @Test
+    public void testClosedLoopWaitsForResponses() throws Exception {
+        responseDelayMillis = 200;
+        LoadGenerator generator = new LoadGenerator(serverUrl, new HttpClientService(), 1, 1, 20, 0, 0,
+                LoadGenerator.Mode.CLOSED, 100);
+
+        generator.run(1000);
+
+        // At 20/s an open loop would send 20; a client waiting 200 ms per response manages about 5
+        long sent = generator.getPuts().getSent();
+        assertTrue(sent >= 3 && sent <= 6, "Closed loop sent " + sent);
+        assertEquals(0, generator.getPuts().getQueued());
+    }
+
+    @Test
+    public void testReport() throws Exception {
+        LoadGenerator generator = new LoadGenerator(serverUrl, new HttpClientService(), 1, 1, 10, 0, 0,
+                LoadGenerator.Mode.OPEN, 10);
+        generator.run(500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        generator.report(new PrintStream(out, true));
+
+        String report = out.toString();
+        assertTrue(report.contains("PUT  sent 5  ok 5"), report);
+        assertTrue(report.contains("p999"), report);
+        assertFalse(report.contains("GET"), "Idle request types are left out");
+    }
+}
@@ -0,0 +1,54 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PutBatcherTest {
+
+    // Helper method to create a WeatherEntry object.
+    private WeatherEntry createWeatherEntry(String id, double airTemp) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setAirTemp(airTemp);
+        return entry;
+    }
+
+    // Test that updates inside the window go out as one batch, keeping the latest entry per station.
+    @Test
+    public void testCoalescesWithinWindow() throws InterruptedException {
+        List<List<WeatherEntry>> sent = new CopyOnWriteArrayList<>();
+        PutBatcher batcher = new PutBatcher(200, 100, sent::add);
+        batcher.submit(createWeatherEntry("W100", 20.0));
+        batcher.submit(createWeatherEntry("W101", 21.0));
+        batcher.submit(createWeatherEntry("W100", 22.0));
+
+        TimeUnit.MILLISECONDS.sleep(500);
+        assertEquals(1, sent.size(), "All updates should share one batch");
+        List<WeatherEntry> batch = sent.get(0);
+        assertEquals(2, batch.size(), "W100 should be sent once");
+        assertEquals("W100", batch.get(0).getId());
+        assertEquals(22.0, batch.get(0).getAirTemp(), "The latest W100 update should win");
+        batcher.close();
+    }
+
+    // Test that a full batch is sent without waiting for the window, and close sends the rest.
+    @Test
+    public void testFlushesWhenFullAndOnClose() {
+        List<List<WeatherEntry>> sent = new CopyOnWriteArrayList<>();
+        PutBatcher batcher = new PutBatcher(60_000, 2, sent::add);
+        batcher.submit(createWeatherEntry("W100", 20.0));
+        batcher.submit(createWeatherEntry("W101", 21.0));
+        batcher.submit(createWeatherEntry("W102", 22.0));
+        batcher.close();
+
+        assertEquals(2, sent.size(), "One full batch and one remainder on close");
+        assertEquals(2, sent.get(0).size());
+        assertEquals("W102", sent.get(1).get(0).getId());
+        assertThrows(IllegalStateException.class, () -> batcher.submit(createWeatherEntry("W103", 0)));
+    }
+}
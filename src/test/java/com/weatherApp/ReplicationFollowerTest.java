@@ -0,0 +1,176 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicationFollowerTest {
+
+    private MockWebServer primary;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        primary = new MockWebServer();
+        primary.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        primary.shutdown();
+    }
+
+    private WeatherEntry createWeatherEntry(String id, long stamp) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setName("Test Station " + id);
+        entry.setTimestamp(stamp);
+        entry.setLastUpdated(System.currentTimeMillis());
+        return entry;
+    }
+
+    private void enqueue(long highWater, int stationCount, WeatherEntry... entries) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (WeatherEntry entry : entries) {
+            body.append(objectMapper.writeValueAsString(entry)).append('\n');
+        }
+        primary.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", EntryStreamWriter.NDJSON_TYPE)
+                .setHeader("Lamport-High-Water", String.valueOf(highWater))
+                .setHeader("Station-Count", String.valueOf(stationCount))
+                .setBody(body.toString()));
+    }
+
+    private String primaryUrl() {
+        return primary.url("").toString().replaceAll("/$", "");
+    }
+
+    private WeatherDataStore newStore() {
+        return new WeatherDataStore(tempDir.resolve("backup.json").toString());
+    }
+
+    // Test that the backup applies the log with the primary's stamps and asks from the high-water mark next.
+    @Test
+    public void testPollAppliesLogInOrder() throws Exception {
+        enqueue(5, 2, createWeatherEntry("W100", 3), createWeatherEntry("W101", 5));
+        enqueue(9, 2, createWeatherEntry("W100", 9));
+        WeatherDataStore store = newStore();
+        LamportClock clock = new LamportClock();
+        ReplicationFollower follower = new ReplicationFollower(primaryUrl(), store, clock, 100, 0, () -> { });
+
+        assertEquals(2, follower.poll());
+        assertEquals(1, follower.poll());
+
+        assertEquals("/replication/log?since=-1", primary.takeRequest().getPath());
+        assertEquals("/replication/log?since=5", primary.takeRequest().getPath());
+        assertEquals(9, store.getEntry("W100").getTimestamp(), "The primary's stamp should be kept");
+        assertEquals(9, follower.getHighWater());
+        assertTrue(clock.getTime() >= 9, "The clock should move past every replicated stamp");
+        assertEquals(1, store.getChangesSince(5).getEntries().size());
+    }
+
+    // Test that entries stamped past the high-water mark wait for a later poll.
+    @Test
+    public void testSkipsEntriesPastHighWater() throws Exception {
+        enqueue(4, 2, createWeatherEntry("W100", 4), createWeatherEntry("W101", 6));
+        WeatherDataStore store = newStore();
+        ReplicationFollower follower = new ReplicationFollower(primaryUrl(), store, new LamportClock(), 100, 0, () -> { });
+
+        assertEquals(1, follower.poll());
+        assertNull(store.getEntry("W101"));
+    }
+
+    // Test that a station count below the backup's triggers a full resync that drops removed stations.
+    @Test
+    public void testResyncDropsRemovedStations() throws Exception {
+        enqueue(5, 2, createWeatherEntry("W100", 3), createWeatherEntry("W101", 5));
+        enqueue(7, 1, createWeatherEntry("W102", 7));
+        enqueue(7, 2, createWeatherEntry("W100", 3), createWeatherEntry("W102", 7));
+        boolean[] savedBeforeRemoval = new boolean[1];
+        WeatherDataStore store = new WeatherDataStore(tempDir.resolve("backup.json").toString()) {
+            @Override
+            public boolean removeData(String id) {
+                savedBeforeRemoval[0] = getEntry("W102") != null;
+                return super.removeData(id);
+            }
+        };
+        ReplicationFollower follower = new ReplicationFollower(primaryUrl(), store, new LamportClock(), 100, 0, () -> { });
+
+        follower.poll();
+        follower.poll();
+
+        primary.takeRequest();
+        primary.takeRequest();
+        RecordedRequest resync = primary.takeRequest();
+        assertEquals("/replication/log?since=-1", resync.getPath());
+        assertNull(store.getEntry("W101"), "W101 expired on the primary");
+        assertEquals(2, store.size());
+        assertTrue(savedBeforeRemoval[0], "Stations should be removed only after the resynced data is saved");
+    }
+
+    // Test that a resync keeps stations whose newest entry is past the high-water mark.
+    @Test
+    public void testResyncKeepsStationsPastHighWater() throws Exception {
+        enqueue(5, 2, createWeatherEntry("W100", 3), createWeatherEntry("W101", 5));
+        enqueue(7, 1, createWeatherEntry("W102", 7));
+        enqueue(7, 3, createWeatherEntry("W100", 3), createWeatherEntry("W102", 7), createWeatherEntry("W101", 9));
+        WeatherDataStore store = newStore();
+        ReplicationFollower follower = new ReplicationFollower(primaryUrl(), store, new LamportClock(), 100, 0, () -> { });
+
+        follower.poll();
+        follower.poll();
+
+        assertNotNull(store.getEntry("W101"), "W101 still exists on the primary; its update waits for the next poll");
+        assertEquals(5, store.getEntry("W101").getTimestamp());
+        assertEquals(3, store.size());
+    }
+
+    // Test that a primary answering with errors is still alive and does not trigger a promotion.
+    @Test
+    public void testErrorAnswersDoNotPromote() throws Exception {
+        primary.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(500);
+            }
+        });
+        CountDownLatch promoted = new CountDownLatch(1);
+        ReplicationFollower follower = new ReplicationFollower(primaryUrl(), newStore(), new LamportClock(), 20, 100, promoted::countDown);
+
+        follower.start();
+
+        assertFalse(promoted.await(1, TimeUnit.SECONDS), "An answering primary should not be replaced");
+        assertTrue(primary.getRequestCount() > ReplicationFollower.UNREACHABLE_POLLS_TO_PROMOTE);
+        follower.stop();
+    }
+
+    // Test that a backup promotes itself once the primary stops answering.
+    @Test
+    public void testPromotesWhenPrimaryIsSilent() throws Exception {
+        String url = primaryUrl();
+        primary.shutdown();
+        CountDownLatch promoted = new CountDownLatch(1);
+        ReplicationFollower follower = new ReplicationFollower(url, newStore(), new LamportClock(), 20, 200, promoted::countDown);
+
+        follower.start();
+
+        assertTrue(promoted.await(10, TimeUnit.SECONDS), "Backup should promote after the heartbeat timeout");
+        assertTrue(follower.isPromoted());
+        assertFalse(follower.promote(), "Promotion happens once");
+    }
+}
@@ -0,0 +1,103 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestLaneTest {
+
+    // Fills a one-thread, one-slot lane with tasks that wait on the latch; returns once both are admitted.
+    private Future<?>[] fill(RequestLane lane, ExecutorService callers, CountDownLatch release) throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        Future<?> first = callers.submit(() -> lane.call(() -> {
+            running.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<?> queued = callers.submit(() -> lane.call(() -> release.await(10, TimeUnit.SECONDS)));
+        // Give the second caller time to take the queue slot
+        TimeUnit.MILLISECONDS.sleep(200);
+        return new Future<?>[]{first, queued};
+    }
+
+    @Test
+    public void testRunsTaskOnLaneThread() throws Exception {
+        RequestLane lane = new RequestLane("read", 2, 4, RequestLane.Rejection.REJECT, false);
+
+        String thread = lane.call(() -> Thread.currentThread().getName());
+
+        assertTrue(thread.startsWith("read-lane-"), thread);
+        lane.shutdown();
+    }
+
+    @Test
+    public void testRejectsWhenFull() throws Exception {
+        RequestLane lane = new RequestLane("read", 1, 1, RequestLane.Rejection.REJECT, false);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?>[] admitted = fill(lane, callers, release);
+
+            assertThrows(RejectedExecutionException.class, () -> lane.call(() -> "late"));
+            assertEquals(1, lane.getRejectedCount());
+
+            release.countDown();
+            for (Future<?> future : admitted) {
+                assertEquals(true, future.get(5, TimeUnit.SECONDS), "Admitted requests should still complete");
+            }
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            lane.shutdown();
+        }
+    }
+
+    @Test
+    public void testCallerRunsWhenFull() throws Exception {
+        RequestLane lane = new RequestLane("write", 1, 1, RequestLane.Rejection.CALLER_RUNS, false);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            fill(lane, callers, release);
+
+            String thread = lane.call(() -> Thread.currentThread().getName());
+
+            assertEquals(Thread.currentThread().getName(), thread, "Overflow should run on the calling thread");
+            assertEquals(0, lane.getRejectedCount());
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            lane.shutdown();
+        }
+    }
+
+    @Test
+    public void testWrapsTaskFailure() {
+        RequestLane lane = new RequestLane("write", 1, 1, RequestLane.Rejection.REJECT, false);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> lane.call(() -> {
+            throw new IOException("disk full");
+        }));
+
+        assertInstanceOf(IOException.class, e.getCause());
+        lane.shutdown();
+    }
+
+    @Test
+    public void testVirtualLaneRunsOnAnyBuild() throws Exception {
+        // On a Java 17 build this falls back to a thread pool; with -Pjava21 it runs on virtual threads
+        RequestLane lane = new RequestLane("read", 2, 2, RequestLane.Rejection.REJECT, true);
+
+        assertEquals(42, lane.call(() -> 42));
+        lane.shutdown();
+    }
+}
@@ -0,0 +1,90 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private WeatherDataStore dataStore;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        dataStore = new WeatherDataStore(tempDir.resolve("weather_data.json").toString());
+        objectMapper = new ObjectMapper();
+    }
+
+    // Helper method to create a WeatherEntry object.
+    private WeatherEntry createWeatherEntry(String id) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setName("Test Station " + id);
+        entry.setLastUpdated(System.currentTimeMillis());
+        return entry;
+    }
+
+    // Test that the body is reused while the data is unchanged.
+    @Test
+    public void testBodyReusedUntilChange() throws Exception {
+        ResponseCache cache = new ResponseCache(dataStore);
+        dataStore.saveData(createWeatherEntry("W100"), 1);
+
+        byte[] first = cache.getBody();
+        assertSame(first, cache.getBody(), "Unchanged data should reuse the cached body");
+
+        dataStore.saveData(createWeatherEntry("W101"), 2);
+        byte[] second = cache.getBody();
+        assertNotSame(first, second, "A change should rebuild the body");
+
+        List<WeatherEntry> entries = objectMapper.readValue(second, new TypeReference<List<WeatherEntry>>() {});
+        assertEquals(2, entries.size(), "Rebuilt body should include the new entry");
+        assertEquals(dataStore.getVersion(), cache.getCachedVersion());
+    }
+
+    // Test that concurrent GETs after a change share a single serialization.
+    @Test
+    public void testConcurrentRequestsShareRebuild() throws Exception {
+        AtomicInteger serializations = new AtomicInteger();
+        ResponseCache cache = new ResponseCache(dataStore) {
+            @Override
+            byte[] serialize(Iterable<WeatherEntry> entries) throws java.io.IOException {
+                serializations.incrementAndGet();
+                return super.serialize(entries);
+            }
+        };
+        for (int i = 0; i < 1000; i++) {
+            dataStore.saveData(createWeatherEntry("W" + i), i);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<byte[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            futures.add(executor.submit(cache::getBody));
+        }
+        byte[] body = null;
+        for (Future<byte[]> future : futures) {
+            byte[] result = future.get(10, TimeUnit.SECONDS);
+            if (body == null) body = result;
+            assertSame(body, result, "Every request should get the same body");
+        }
+        executor.shutdown();
+        assertEquals(1, serializations.get(), "Data should be serialized once for one version");
+    }
+}
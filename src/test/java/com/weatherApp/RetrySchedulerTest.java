@@ -0,0 +1,103 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetrySchedulerTest {
+
+    private static final String TARGET = "http://localhost:4567";
+    private RetryScheduler scheduler;
+
+    @AfterEach
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private static CompletableFuture<Integer> fail() {
+        return CompletableFuture.failedFuture(new IOException("Simulated Connection Error"));
+    }
+
+    // Test that failed attempts are retried until one succeeds.
+    @Test
+    public void testRetriesUntilSuccess() throws Exception {
+        scheduler = new RetryScheduler(3, 5, 20, 10, 1000);
+        AtomicInteger calls = new AtomicInteger();
+        int code = scheduler.execute(TARGET, attempt ->
+                calls.incrementAndGet() < 3 ? fail() : CompletableFuture.completedFuture(201))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(201, code);
+        assertEquals(3, calls.get(), "Two failures and one success");
+    }
+
+    // Test that the last error is reported once retries run out, and non-success codes are retried too.
+    @Test
+    public void testGivesUpAfterMaxRetries() throws Exception {
+        scheduler = new RetryScheduler(2, 5, 20, 10, 1000);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutionException error = assertThrows(ExecutionException.class, () ->
+                scheduler.execute(TARGET, attempt -> { calls.incrementAndGet(); return fail(); })
+                        .get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IOException);
+        assertEquals(3, calls.get(), "Initial attempt plus two retries");
+
+        assertEquals(500, scheduler.execute("http://other:4567", attempt -> CompletableFuture.completedFuture(500))
+                .get(5, TimeUnit.SECONDS), "The last response code should be returned");
+    }
+
+    // Test that the circuit opens after repeated failures, rejects without calling, and closes after a good trial.
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        scheduler = new RetryScheduler(0, 5, 20, 2, 200);
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            scheduler.execute(TARGET, attempt -> { calls.incrementAndGet(); return fail(); })
+                    .handle((code, e) -> null).get(5, TimeUnit.SECONDS);
+        }
+        assertTrue(scheduler.isCircuitOpen(TARGET), "Two failures should open the circuit");
+
+        ExecutionException rejected = assertThrows(ExecutionException.class, () ->
+                scheduler.execute(TARGET, attempt -> { calls.incrementAndGet(); return fail(); })
+                        .get(5, TimeUnit.SECONDS));
+        assertTrue(rejected.getCause().getMessage().contains("Circuit open"));
+        assertEquals(2, calls.get(), "An open circuit should not call the server");
+
+        TimeUnit.MILLISECONDS.sleep(300);
+        assertEquals(200, scheduler.execute(TARGET, attempt -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(200);
+        }).get(5, TimeUnit.SECONDS), "The half-open trial should go through");
+        assertFalse(scheduler.isCircuitOpen(TARGET));
+    }
+
+    // Test that retries stop once the per-target budget is spent.
+    @Test
+    public void testRetryBudget() throws Exception {
+        scheduler = new RetryScheduler(100, 1, 2, 1_000, 1000);
+        AtomicInteger calls = new AtomicInteger();
+        scheduler.execute(TARGET, attempt -> { calls.incrementAndGet(); return fail(); })
+                .handle((code, e) -> null).get(5, TimeUnit.SECONDS);
+        assertEquals(11, calls.get(), "Only the starting budget of 10 retries should be spent");
+    }
+
+    // Test that backoff stays within the exponential ceiling and the cap.
+    @Test
+    public void testBackoffIsBounded() {
+        scheduler = new RetryScheduler(3, 100, 1000, 5, 1000);
+        for (int i = 0; i < 200; i++) {
+            assertTrue(scheduler.backoffMillis(0) <= 100);
+            assertTrue(scheduler.backoffMillis(2) <= 400);
+            assertTrue(scheduler.backoffMillis(20) <= 1000);
+        }
+    }
+}
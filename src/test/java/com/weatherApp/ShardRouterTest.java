@@ -0,0 +1,296 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardRouterTest {
+
+    private static final int ROUTER_PORT = 4590;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static FakeShard shardA;
+    private static FakeShard shardB;
+    private static List<String> idsOnA = new ArrayList<>();
+    private static List<String> idsOnB = new ArrayList<>();
+
+    // A shard that answers PUTs with one report per entry and GETs with whatever the test configures.
+    private static class FakeShard {
+        final MockWebServer server = new MockWebServer();
+        final Queue<RecordedRequest> requests = new ConcurrentLinkedQueue<>();
+        final Queue<String> putBodies = new ConcurrentLinkedQueue<>();
+        volatile int putStatus;
+        volatile boolean failPuts;
+        volatile String getBody = "[]";
+        volatile String etag;
+        volatile String highWater;
+        volatile String stationCount;
+
+        FakeShard(int putStatus) throws IOException {
+            this.putStatus = putStatus;
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    requests.add(request);
+                    if ("PUT".equals(request.getMethod())) {
+                        return answerPut(request.getBody().readUtf8());
+                    }
+                    return answerGet(request);
+                }
+            });
+            server.start();
+        }
+
+        String url() {
+            return server.url("").toString().replaceAll("/$", "");
+        }
+
+        private MockResponse answerPut(String body) {
+            putBodies.add(body);
+            if (failPuts) {
+                return new MockResponse().setResponseCode(503);
+            }
+            try {
+                JsonNode batch = objectMapper.readTree(body);
+                if (!batch.isArray()) {
+                    return new MockResponse().setResponseCode(putStatus).setBody("Data Received");
+                }
+                List<PutResult> results = new ArrayList<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    results.add(new PutResult(i, batch.get(i).get("id").asText(), putStatus, null));
+                }
+                return new MockResponse().setResponseCode(putStatus)
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(objectMapper.writeValueAsString(results));
+            } catch (IOException e) {
+                return new MockResponse().setResponseCode(500);
+            }
+        }
+
+        private MockResponse answerGet(RecordedRequest request) {
+            String ids = request.getRequestUrl().queryParameter("id");
+            MockResponse response = new MockResponse().setResponseCode(200).setHeader("Content-Type", "application/json");
+            if (ids != null && request.getRequestUrl().queryParameter("since") == null) {
+                // Lookups by id return the named stations, newest first, so the router has to reorder them
+                StringBuilder body = new StringBuilder("[");
+                String[] named = ids.split(",");
+                for (int i = named.length - 1; i >= 0; i--) {
+                    body.append(body.length() > 1 ? "," : "").append("{\"id\":\"").append(named[i]).append("\"}");
+                }
+                return response.setBody(body.append(']').toString());
+            }
+            if (etag != null) {
+                response.setHeader("ETag", etag);
+            }
+            if (highWater != null) {
+                response.setHeader("Lamport-High-Water", highWater);
+                response.setHeader("Station-Count", stationCount);
+            }
+            return response.setBody(getBody);
+        }
+
+        void reset() {
+            requests.clear();
+            putBodies.clear();
+            failPuts = false;
+            getBody = "[]";
+            etag = null;
+            highWater = null;
+            stationCount = null;
+        }
+    }
+
+    // Starts two fake shards and a router in front of them.
+    @BeforeAll
+    public static void setUp() throws IOException {
+        shardA = new FakeShard(201);
+        shardB = new FakeShard(200);
+        List<String> shards = List.of(shardA.url(), shardB.url());
+
+        // The same ring the router builds, to know which shard owns which station
+        ConsistentHashRing ring = new ConsistentHashRing(shards, ServerConfig.load()
+                .getInt("aggregation.shard.virtualNodes", ConsistentHashRing.DEFAULT_VIRTUAL_NODES));
+        for (int i = 0; idsOnA.size() < 3 || idsOnB.size() < 3; i++) {
+            (ring.shardIndexFor("IDS" + i) == 0 ? idsOnA : idsOnB).add("IDS" + i);
+        }
+
+        // Another test class may still be stopping the shared Spark server
+        Spark.awaitStop();
+        ShardRouter.main(new String[]{String.valueOf(ROUTER_PORT), shardA.url(), shardB.url()});
+        Spark.awaitInitialization();
+    }
+
+    // Stops the router and the fake shards.
+    @AfterAll
+    public static void tearDown() throws IOException {
+        Spark.stop();
+        Spark.awaitStop();
+        shardA.server.shutdown();
+        shardB.server.shutdown();
+    }
+
+    @BeforeEach
+    public void resetShards() {
+        shardA.reset();
+        shardB.reset();
+    }
+
+    private RequestSpecification router() {
+        return given().baseUri("http://localhost").port(ROUTER_PORT);
+    }
+
+    private static String entry(String id) {
+        return "{\"id\":\"" + id + "\"}";
+    }
+
+    // Test that a batch is split per owning shard and the reports come back in request order.
+    @Test
+    public void testBatchPutSplitsPerShardAndReassemblesReports() throws IOException {
+        String a0 = idsOnA.get(0);
+        String a1 = idsOnA.get(1);
+        String b0 = idsOnB.get(0);
+        String batch = "[" + entry(a0) + "," + entry(b0) + ",{\"name\":\"no id\"}," + entry(a1) + "]";
+
+        Response response = router().body(batch).put("/weather.json");
+
+        assertEquals(201, response.statusCode());
+        PutResult[] results = objectMapper.readValue(response.asByteArray(), PutResult[].class);
+        assertEquals(4, results.length);
+        assertEquals(a0, results[0].getId());
+        assertEquals(201, results[0].getStatus());
+        assertEquals(b0, results[1].getId());
+        assertEquals(200, results[1].getStatus());
+        assertNull(results[2].getId());
+        assertEquals(500, results[2].getStatus());
+        assertEquals("Missing 'id'", results[2].getError());
+        assertEquals(a1, results[3].getId());
+        assertEquals(201, results[3].getStatus());
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(i, results[i].getIndex());
+        }
+
+        // Each shard sees only its own entries, once, in their original order
+        assertEquals(1, shardA.putBodies.size());
+        assertEquals("[" + entry(a0) + "," + entry(a1) + "]", shardA.putBodies.peek());
+        assertEquals(1, shardB.putBodies.size());
+        assertEquals("[" + entry(b0) + "]", shardB.putBodies.peek());
+    }
+
+    // Test that a failed shard marks only its own entries as failed.
+    @Test
+    public void testBatchPutReportsFailedShardPerEntry() throws IOException {
+        shardB.failPuts = true;
+        String batch = "[" + entry(idsOnB.get(0)) + "," + entry(idsOnA.get(0)) + "," + entry(idsOnB.get(1)) + "]";
+
+        Response response = router().body(batch).put("/weather.json");
+
+        assertEquals(201, response.statusCode());
+        PutResult[] results = objectMapper.readValue(response.asByteArray(), PutResult[].class);
+        assertEquals(503, results[0].getStatus());
+        assertEquals("Shard " + shardB.url() + " failed", results[0].getError());
+        assertEquals(201, results[1].getStatus());
+        assertEquals(503, results[2].getStatus());
+        assertEquals(idsOnB.get(1), results[2].getId());
+    }
+
+    // Test that a batch with nothing applied answers 500.
+    @Test
+    public void testBatchPutWithNothingAppliedFails() {
+        shardA.failPuts = true;
+        shardB.failPuts = true;
+
+        router().body("[" + entry(idsOnA.get(0)) + "," + entry(idsOnB.get(0)) + "]").put("/weather.json")
+                .then().statusCode(500);
+    }
+
+    // Test that a single entry goes to its owner only.
+    @Test
+    public void testSinglePutGoesToOwner() {
+        router().header("Lamport-Time", "7").body(entry(idsOnB.get(2))).put("/weather.json").then().statusCode(200);
+
+        assertTrue(shardA.putBodies.isEmpty());
+        assertEquals(entry(idsOnB.get(2)), shardB.putBodies.peek());
+        assertEquals("7", shardB.requests.peek().getHeader("Lamport-Time"));
+    }
+
+    // Test that shard arrays are joined byte-wise, skipping empty ones and stray whitespace.
+    @Test
+    public void testGetMergesShardArrays() {
+        shardA.getBody = "[" + entry("A1") + "," + entry("A2") + "]";
+        shardB.getBody = " [ \n ] ";
+        assertEquals("[" + entry("A1") + "," + entry("A2") + "]", router().get("/weather.json").asString());
+
+        shardB.getBody = "\n[" + entry("B1") + "]\n";
+        assertEquals("[" + entry("A1") + "," + entry("A2") + "," + entry("B1") + "]", router().get("/weather.json").asString());
+
+        shardA.getBody = "[]";
+        shardB.getBody = "[]";
+        assertEquals("[]", router().get("/weather.json").asString());
+    }
+
+    // Test that a since query takes the lowest high-water mark and adds up the station counts.
+    @Test
+    public void testSinceFoldsHighWaterAndStationCount() {
+        shardA.highWater = "40";
+        shardA.stationCount = "3";
+        shardB.highWater = "25";
+        shardB.stationCount = "2";
+
+        Response response = router().queryParam("since", 5).get("/weather.json");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("25", response.header("Lamport-High-Water"));
+        assertEquals("5", response.header("Station-Count"));
+        assertEquals("5", shardA.requests.peek().getRequestUrl().queryParameter("since"));
+        assertEquals("5", shardB.requests.peek().getRequestUrl().queryParameter("since"));
+    }
+
+    // Test that shard ETags are combined in shard order and a matching If-None-Match answers 304.
+    @Test
+    public void testCombinesETagsAndAnswersNotModified() {
+        shardA.etag = "\"e1-7\"";
+        shardB.etag = "\"e2-3\"";
+
+        Response response = router().get("/weather.json");
+        assertEquals("\"e1-7.e2-3\"", response.header("ETag"));
+
+        router().header("If-None-Match", "\"e1-7.e2-3\"").get("/weather.json").then().statusCode(304);
+        // Lists, weak tags and * match as they do on a single server
+        router().header("If-None-Match", "\"old\", W/\"e1-7.e2-3\"").get("/weather.json").then().statusCode(304);
+        router().header("If-None-Match", "*").get("/weather.json").then().statusCode(304);
+
+        shardB.etag = "\"e2-4\"";
+        router().header("If-None-Match", "\"e1-7.e2-3\"").get("/weather.json").then().statusCode(200);
+    }
+
+    // Test that named stations are looked up on their owners and returned in request order.
+    @Test
+    public void testGetByIdsReturnsRequestOrder() {
+        String ids = idsOnB.get(0) + "," + idsOnA.get(0) + "," + idsOnB.get(1);
+
+        String body = router().queryParam("id", ids).get("/weather.json").asString();
+
+        assertEquals("[" + entry(idsOnB.get(0)) + "," + entry(idsOnA.get(0)) + "," + entry(idsOnB.get(1)) + "]", body);
+        assertEquals(idsOnA.get(0), shardA.requests.peek().getRequestUrl().queryParameter("id"));
+        assertEquals(idsOnB.get(0) + "," + idsOnB.get(1), shardB.requests.peek().getRequestUrl().queryParameter("id"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StationFileWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private void writeStation(Path file, String id, double airTemp) throws IOException {
+        Files.writeString(file, "id:" + id + "\nname:Station " + id + "\nair_temp:" + airTemp + "\n");
+    }
+
+    private static void waitFor(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+
+    // Test that existing files are uploaded on start and changed files are uploaded again.
+    @Test
+    public void testUploadsExistingAndChangedFiles() throws Exception {
+        writeStation(tempDir.resolve("a.txt"), "W100", 20.0);
+        writeStation(tempDir.resolve("b.txt"), "W101", 21.0);
+        List<WeatherEntry> uploads = new CopyOnWriteArrayList<>();
+
+        try (StationFileWatcher watcher = new StationFileWatcher(tempDir, 2, entry -> {
+            uploads.add(entry);
+            return CompletableFuture.completedFuture(true);
+        })) {
+            watcher.start();
+            assertEquals(2, uploads.size(), "Both files should be uploaded on start");
+
+            writeStation(tempDir.resolve("a.txt"), "W100", 25.0);
+            Files.setLastModifiedTime(tempDir.resolve("a.txt"), FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+            waitFor(uploads, 3);
+            assertEquals(3, uploads.size(), "Only the changed file should be uploaded again");
+            assertEquals(25.0, uploads.get(2).getAirTemp());
+        }
+    }
+
+    // Test that the periodic rescan retries a failed upload even though the file does not change again.
+    @Test
+    public void testPeriodicRescanRetriesFailedUpload() throws Exception {
+        writeStation(tempDir.resolve("a.txt"), "W100", 20.0);
+        List<WeatherEntry> uploads = new CopyOnWriteArrayList<>();
+
+        try (StationFileWatcher watcher = new StationFileWatcher(tempDir, 1, 100, entry -> {
+            uploads.add(entry);
+            // The first attempt fails, later ones succeed
+            return CompletableFuture.completedFuture(uploads.size() > 1);
+        })) {
+            watcher.start();
+            waitFor(uploads, 2);
+            assertEquals(2, uploads.size(), "The failed file should be uploaded again by a rescan");
+            TimeUnit.MILLISECONDS.sleep(300);
+            assertEquals(2, uploads.size(), "Once uploaded, the unchanged file should not be sent again");
+        }
+    }
+
+    // Test that a rescan skips unchanged files, retries failed uploads and ignores unreadable ones.
+    @Test
+    public void testScanSkipsUnchangedAndRetriesFailures() throws IOException {
+        writeStation(tempDir.resolve("a.txt"), "W100", 20.0);
+        Files.writeString(tempDir.resolve("bad.txt"), "name:No id\n");
+        List<WeatherEntry> uploads = new CopyOnWriteArrayList<>();
+        boolean[] succeed = {false};
+
+        StationFileWatcher watcher = new StationFileWatcher(tempDir, 1, entry -> {
+            uploads.add(entry);
+            return CompletableFuture.completedFuture(succeed[0]);
+        });
+        assertEquals(1, watcher.scan(), "Only the valid file should be sent");
+        succeed[0] = true;
+        assertEquals(1, watcher.scan(), "A failed upload should be tried again");
+        assertEquals(0, watcher.scan(), "An uploaded, unchanged file should be skipped");
+        assertEquals(2, uploads.size());
+        watcher.close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StationMirrorTest {
+
+    private MockWebServer mockWebServer;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    // Helper method to create a WeatherEntry object.
+    private WeatherEntry createWeatherEntry(String id, double airTemp) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setName("Test Station " + id);
+        entry.setAirTemp(airTemp);
+        return entry;
+    }
+
+    private void enqueue(long highWater, int stationCount, WeatherEntry... entries) throws IOException {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", "application/json")
+                .setHeader("Lamport-Time", "1")
+                .setHeader("Lamport-High-Water", String.valueOf(highWater))
+                .setHeader("Station-Count", String.valueOf(stationCount))
+                .setBody(objectMapper.writeValueAsString(List.of(entries))));
+    }
+
+    // Test that polls ask for changes since the last high-water mark and merge them in.
+    @Test
+    public void testPollAppliesDeltas() throws Exception {
+        enqueue(5, 2, createWeatherEntry("W100", 20.0), createWeatherEntry("W101", 21.0));
+        enqueue(7, 2, createWeatherEntry("W100", 25.0));
+
+        StationMirror mirror = new StationMirror(mockWebServer.url("").toString().replaceAll("/$", ""), new LamportClock());
+        assertEquals(2, mirror.poll().size(), "First poll should fetch every station");
+        assertEquals(5, mirror.getHighWater());
+
+        List<WeatherEntry> changed = mirror.poll();
+        assertEquals(1, changed.size(), "Second poll should fetch only the changed station");
+        assertEquals(25.0, mirror.getStations().get("W100").getAirTemp(), "Changed station should be updated");
+        assertEquals(2, mirror.getStations().size());
+        assertEquals(7, mirror.getHighWater());
+
+        RecordedRequest first = mockWebServer.takeRequest();
+        RecordedRequest second = mockWebServer.takeRequest();
+        assertEquals("/weather.json?since=-1", first.getPath());
+        assertEquals("/weather.json?since=5", second.getPath());
+    }
+
+    // Test that a station count below the mirror's size triggers a full resync.
+    @Test
+    public void testPollResyncsAfterRemoval() throws Exception {
+        enqueue(5, 2, createWeatherEntry("W100", 20.0), createWeatherEntry("W101", 21.0));
+        enqueue(5, 1);
+        enqueue(6, 1, createWeatherEntry("W101", 21.0));
+
+        StationMirror mirror = new StationMirror(mockWebServer.url("").toString().replaceAll("/$", ""), new LamportClock());
+        mirror.poll();
+        mirror.poll();
+
+        assertEquals(1, mirror.getStations().size(), "Expired station should be dropped");
+        assertTrue(mirror.getStations().containsKey("W101"));
+        assertEquals(6, mirror.getHighWater());
+
+        mockWebServer.takeRequest();
+        assertEquals("/weather.json?since=5", mockWebServer.takeRequest().getPath());
+        assertEquals("/weather.json?since=-1", mockWebServer.takeRequest().getPath());
+    }
+}
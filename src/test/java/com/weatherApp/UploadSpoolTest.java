@@ -0,0 +1,126 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UploadSpoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static WeatherEntry entry(String id, double airTemp) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setAirTemp(airTemp);
+        return entry;
+    }
+
+    @Test
+    public void testKeepsOnlyNewestUpdatePerStation() throws IOException {
+        try (UploadSpool spool = new UploadSpool(tempDir.resolve("spool.journal"))) {
+            spool.open();
+            assertTrue(spool.add(entry("W001", 10.0), 1));
+            assertTrue(spool.add(entry("W002", 20.0), 2));
+            assertTrue(spool.add(entry("W001", 11.0), 3));
+            assertFalse(spool.add(entry("W001", 9.0), 2), "An older update should not replace a newer one");
+
+            List<List<WeatherEntry>> batches = new ArrayList<>();
+            assertEquals(2, spool.drain(10, batch -> batches.add(new ArrayList<>(batch))));
+
+            assertEquals(1, batches.size());
+            assertEquals("W002", batches.get(0).get(0).getId(), "The longest-waiting station should go first");
+            assertEquals(11.0, batches.get(0).get(1).getAirTemp());
+            assertEquals(0, spool.size());
+        }
+    }
+
+    @Test
+    public void testDeliveredUpdateDropsOlderPendingOne() throws IOException {
+        try (UploadSpool spool = new UploadSpool(tempDir.resolve("spool.journal"))) {
+            spool.open();
+            spool.add(entry("W001", 10.0), 5);
+            spool.delivered("W001", 7);
+
+            assertEquals(0, spool.size());
+            assertFalse(spool.add(entry("W001", 12.0), 6), "An update older than a delivered one is stale");
+        }
+    }
+
+    @Test
+    public void testDrainStopsAtFailedBatch() throws IOException {
+        try (UploadSpool spool = new UploadSpool(tempDir.resolve("spool.journal"))) {
+            spool.open();
+            for (int i = 0; i < 5; i++) {
+                spool.add(entry("W00" + i, i), i + 1);
+            }
+            int[] calls = {0};
+
+            int sent = spool.drain(2, batch -> ++calls[0] == 1);
+
+            assertEquals(2, sent);
+            assertEquals(2, calls[0]);
+            assertEquals(3, spool.size());
+        }
+    }
+
+    @Test
+    public void testPendingUpdatesSurviveRestart() throws IOException {
+        Path journal = tempDir.resolve("spool.journal");
+        try (UploadSpool spool = new UploadSpool(journal)) {
+            spool.open();
+            spool.add(entry("W001", 10.0), 1);
+            spool.add(entry("W002", 20.0), 2);
+            spool.add(entry("W001", 11.0), 3);
+            spool.delivered("W002", 4);
+        }
+
+        try (UploadSpool spool = new UploadSpool(journal)) {
+            spool.open();
+            assertEquals(1, spool.size());
+            assertEquals(4, spool.getHighestStamp());
+            assertEquals(1, Files.readAllLines(journal).size(), "Opening should compact the journal");
+
+            List<WeatherEntry> sent = new ArrayList<>();
+            spool.drain(10, sent::addAll);
+            assertEquals(11.0, sent.get(0).getAirTemp());
+        }
+    }
+
+    @Test
+    public void testDeliveredWithNothingPendingWritesNothing() throws IOException {
+        Path journal = tempDir.resolve("spool.journal");
+        try (UploadSpool spool = new UploadSpool(journal)) {
+            spool.open();
+            spool.delivered("W001", 1);
+        }
+        assertEquals(0, Files.size(journal));
+    }
+
+    @Test
+    public void testReadsJournalWrittenWithDatabind() throws IOException {
+        Path journal = tempDir.resolve("spool.journal");
+        // Lines as databind wrote them before the spool moved to WeatherEntryCodec
+        Files.writeString(journal, "{\"op\":\"put\",\"id\":\"W001\",\"stamp\":4,\"entry\":"
+                + new ObjectMapper().writeValueAsString(entry("W001", 10.0)) + "}\n"
+                + "{\"op\":\"put\",\"id\":\"W002\",\"stamp\":5,\"entry\":{\"id\":\"W002\"}}\n"
+                + "{\"op\":\"done\",\"id\":\"W002\",\"stamp\":5}\n");
+
+        try (UploadSpool spool = new UploadSpool(journal)) {
+            spool.open();
+            assertEquals(1, spool.size());
+            assertEquals(5, spool.getHighestStamp());
+            List<WeatherEntry> sent = new ArrayList<>();
+            spool.drain(10, sent::addAll);
+            assertEquals(10.0, sent.get(0).getAirTemp());
+        }
+    }
+}
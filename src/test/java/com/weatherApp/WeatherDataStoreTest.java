@@ -11,7 +11,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,7 +31,12 @@ public class WeatherDataStoreTest {
         objectMapper = new ObjectMapper();
         // Create a temporary file for testing
         tempFilePath = Files.createTempFile("weather_data_store_test", ".json");
-        dataStore = new WeatherDataStore(tempFilePath.toString());
+        dataStore = newStore(tempFilePath.toString());
+    }
+
+    // Creates the store under test; ColumnarStationTableTest runs these tests against the columnar layout.
+    protected WeatherDataStore newStore(String path) {
+        return new WeatherDataStore(path);
     }
 
     @AfterAll
@@ -250,7 +259,7 @@ public class WeatherDataStoreTest {
         assertEquals(3, dataBeforeExpiration.size(), "Data list should contain 3 entries before expiration");
 
         // Call expireOldData()
-        dataStore.expireOldData();
+        assertEquals(2, dataStore.expireOldData(), "Two entries should have expired");
 
         // Retrieve data after expiration
         List<WeatherEntry> dataAfterExpiration = dataStore.getData();
@@ -298,4 +307,158 @@ public class WeatherDataStoreTest {
         assertEquals(1, data.size(), "Data list should contain 1 entry");
         assertEquals(entry, data.get(0), "Data list should contain the new entry");
     }
+
+    // Test that saveData reports whether the station was created or updated.
+    @Test
+    public void testSaveDataReportsCreated() {
+        WeatherEntry entry = createWeatherEntry("W100");
+        assertTrue(dataStore.saveData(entry, 1), "First save should create the station");
+
+        WeatherEntry update = createWeatherEntry("W100");
+        update.setAirTemp(31.0);
+        assertFalse(dataStore.saveData(update, 2), "Second save should update the station");
+        assertEquals(1, dataStore.size(), "Data store should hold 1 station");
+    }
+
+    // Test looking up and removing an entry by station id.
+    @Test
+    public void testGetEntryAndRemoveData() {
+        WeatherEntry entry = createWeatherEntry("W100");
+        dataStore.saveData(entry, 4);
+
+        WeatherEntry found = dataStore.getEntry("W100");
+        assertNotNull(found, "Entry W100 should be found");
+        assertEquals(4, found.getTimestamp(), "Timestamp should match the Lamport time");
+        assertNull(dataStore.getEntry("W999"), "Unknown station should not be found");
+
+        assertTrue(dataStore.removeData("W100"), "Entry W100 should be removed");
+        assertFalse(dataStore.removeData("W100"), "Entry W100 should already be removed");
+        assertTrue(dataStore.isNewEntry("W100"), "Entry W100 should be new again");
+    }
+
+    // Test looking up several stations by id.
+    @Test
+    public void testGetEntries() {
+        dataStore.saveData(createWeatherEntry("W100"), 1);
+        dataStore.saveData(createWeatherEntry("W101"), 2);
+        dataStore.saveData(createWeatherEntry("W102"), 3);
+
+        List<WeatherEntry> found = dataStore.getEntries(List.of("W102", "W999", "W100"));
+        assertEquals(2, found.size(), "Only known stations should be returned");
+        assertEquals("W102", found.get(0).getId(), "Entries should follow request order");
+        assertEquals("W100", found.get(1).getId());
+    }
+
+    // Test that since-queries return only newer entries and hold the high-water mark below pending writes.
+    @Test
+    public void testGetChangesSince() {
+        dataStore.saveData(createWeatherEntry("W100"), 1);
+        dataStore.saveData(createWeatherEntry("W101"), 2);
+        dataStore.saveData(createWeatherEntry("W102"), 3);
+        dataStore.saveData(createWeatherEntry("W100"), 4);
+
+        WeatherDataStore.ChangeSet changes = dataStore.getChangesSince(2);
+        assertEquals(2, changes.getEntries().size(), "Only W102 and the updated W100 changed after 2");
+        assertEquals("W102", changes.getEntries().get(0).getId(), "Changes should be in Lamport order");
+        assertEquals("W100", changes.getEntries().get(1).getId());
+        assertEquals(4, changes.getHighWater(), "High-water mark should be the newest stamp");
+
+        WeatherDataStore.WriteTicket ticket = dataStore.beginWrite(4);
+        dataStore.saveData(createWeatherEntry("W103"), 6);
+        assertEquals(4, dataStore.getChangesSince(4).getHighWater(), "A pending write should hold the mark at its floor");
+        dataStore.endWrite(ticket);
+        assertEquals(6, dataStore.getChangesSince(4).getHighWater(), "The mark should advance once the write ends");
+        assertTrue(dataStore.getChangesSince(6).getEntries().isEmpty(), "Nothing changed after 6");
+    }
+
+    // Test that a refreshed station is not expired by its old deadline and that idle ticks remove nothing.
+    @Test
+    public void testExpireOldDataSkipsRefreshedEntry() {
+        long currentTime = System.currentTimeMillis();
+        WeatherEntry oldEntry = createWeatherEntry("W100");
+        oldEntry.setLastUpdated(currentTime - (25 * 60 * 60 * 1000)); // 25 hours ago
+        dataStore.saveData(oldEntry, 1);
+
+        WeatherEntry refreshed = createWeatherEntry("W100");
+        refreshed.setLastUpdated(currentTime);
+        dataStore.saveData(refreshed, 2);
+
+        assertEquals(0, dataStore.expireOldData(), "Refreshed station should not expire");
+        assertEquals(1, dataStore.size());
+        long versionBefore = dataStore.getVersion();
+        assertEquals(0, dataStore.expireOldData(), "Nothing should be due on an idle tick");
+        assertEquals(versionBefore, dataStore.getVersion(), "An idle tick should not change the store");
+    }
+
+    // Test that saving the stored entry object again moves its index keys instead of leaking the old ones.
+    @Test
+    public void testResavingStoredEntryKeepsOneIndexKey() {
+        WeatherEntry entry = createWeatherEntry("W100");
+        dataStore.saveData(entry, 1);
+        WeatherEntry stored = dataStore.getEntry("W100");
+
+        dataStore.saveData(stored, 2);
+        dataStore.saveData(stored, 3);
+
+        assertEquals(1, dataStore.changeIndexSize(), "Each station should have exactly one change-index key");
+        assertEquals(1, dataStore.getChangesSince(2).getEntries().size());
+        assertTrue(dataStore.getChangesSince(3).getEntries().isEmpty());
+    }
+
+    // Test saving a batch with one persist, reporting created or updated per entry.
+    @Test
+    public void testSaveAllDurably() throws IOException {
+        dataStore.saveData(createWeatherEntry("W100"), 1);
+
+        WeatherEntry update = createWeatherEntry("W100");
+        update.setTimestamp(2);
+        WeatherEntry created = createWeatherEntry("W101");
+        created.setTimestamp(3);
+        boolean[] results = dataStore.saveAllDurably(List.of(update, created));
+
+        assertArrayEquals(new boolean[]{false, true}, results, "W100 should be updated and W101 created");
+        assertEquals(3, dataStore.getEntry("W101").getTimestamp(), "The stamped Lamport time should be kept");
+        List<WeatherEntry> persisted = objectMapper.readValue(tempFilePath.toFile(), new TypeReference<List<WeatherEntry>>() {});
+        assertEquals(2, persisted.size(), "The batch should be persisted");
+    }
+
+    // Test that concurrent durable saves in snapshot mode all succeed and leave a complete snapshot.
+    @Test
+    public void testConcurrentSaveDataDurably() throws Exception {
+        long writesBefore = dataStore.getMetrics().getSnapshotWrites();
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> saves = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                WeatherEntry entry = createWeatherEntry("W" + (i % 50));
+                long lamportTime = i + 1;
+                saves.add(writers.submit(() -> dataStore.saveDataDurably(entry, lamportTime)));
+            }
+            for (Future<Boolean> save : saves) {
+                save.get(); // Rethrows any persistence failure
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        List<WeatherEntry> persisted = objectMapper.readValue(tempFilePath.toFile(), new TypeReference<List<WeatherEntry>>() {});
+        assertEquals(50, persisted.size(), "The last snapshot should hold every station");
+        assertTrue(dataStore.getMetrics().getSnapshotWrites() - writesBefore < 400, "Saves waiting on a rewrite should share the next one");
+    }
+
+    // Test that a durable save after an unchanged store still writes, and nothing is skipped once the store changes.
+    @Test
+    public void testPersistDataSkipsOnlyCoveredChanges() throws IOException {
+        dataStore.saveData(createWeatherEntry("W100"), 1);
+        dataStore.persistData();
+        long writes = dataStore.getMetrics().getSnapshotWrites();
+
+        dataStore.persistData();
+        assertEquals(writes, dataStore.getMetrics().getSnapshotWrites(), "A snapshot already holding every change is not rewritten");
+
+        dataStore.saveDataDurably(createWeatherEntry("W101"), 2);
+        assertEquals(writes + 1, dataStore.getMetrics().getSnapshotWrites());
+        List<WeatherEntry> persisted = objectMapper.readValue(tempFilePath.toFile(), new TypeReference<List<WeatherEntry>>() {});
+        assertEquals(2, persisted.size());
+    }
 }
@@ -0,0 +1,139 @@
+package com.weatherApp;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeatherEntryCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Helper method to create a fully populated WeatherEntry object.
+    private WeatherEntry createWeatherEntry(String id) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setName("Station \"" + id + "\" é");
+        entry.setState("SA");
+        entry.setTimeZone("CST");
+        entry.setLat(-34.9);
+        entry.setLon(138.6);
+        entry.setLocalDateTime("15/04:00pm");
+        entry.setLocalDateTimeFull("20230715160000");
+        entry.setAirTemp(13.3);
+        entry.setApparentT(9.5);
+        entry.setCloud("Partly cloudy");
+        entry.setDewpt(5.7);
+        entry.setPress(1023.9);
+        entry.setRelHum(60);
+        entry.setWindDir("S");
+        entry.setWindSpdKmh(15);
+        entry.setWindSpdKt(8);
+        entry.setTimestamp(42);
+        entry.setLastUpdated(1_700_000_000_000L);
+        return entry;
+    }
+
+    // Test that the codec writes exactly what databind writes, for entries and arrays.
+    @Test
+    public void testWriteMatchesDatabind() throws IOException {
+        WeatherEntry entry = createWeatherEntry("W100");
+        WeatherEntry sparse = new WeatherEntry();
+        sparse.setId("W101");
+        List<WeatherEntry> entries = Arrays.asList(entry, sparse, null);
+
+        assertEquals(objectMapper.writeValueAsString(entry), WeatherEntryCodec.writeString(entry));
+        assertArrayEquals(objectMapper.writeValueAsBytes(entry), WeatherEntryCodec.writeBytes(entry));
+        assertEquals(objectMapper.writeValueAsString(entries), WeatherEntryCodec.writeArrayString(entries));
+        assertArrayEquals(objectMapper.writeValueAsBytes(entries), WeatherEntryCodec.writeArrayBytes(entries));
+    }
+
+    // Test that an entry survives a round trip through the codec.
+    @Test
+    public void testRoundTrip() throws IOException {
+        WeatherEntry entry = createWeatherEntry("W100");
+        WeatherEntry parsed = WeatherEntryCodec.readEntry(WeatherEntryCodec.writeBytes(entry));
+
+        assertEquals(objectMapper.writeValueAsString(entry), objectMapper.writeValueAsString(parsed));
+        assertEquals("Station \"W100\" é", parsed.getName());
+    }
+
+    // Test that fields in any order, and missing fields, decode as they do with databind.
+    @Test
+    public void testReadOutOfOrderFields() throws IOException {
+        String json = "{\"wind_spd_kt\":8,\"id\":\"W100\",\"air_temp\":13.3,\"name\":null,\"timestamp\":5}";
+        WeatherEntry parsed = WeatherEntryCodec.readEntry(json);
+
+        assertEquals(objectMapper.writeValueAsString(objectMapper.readValue(json, WeatherEntry.class)),
+                objectMapper.writeValueAsString(parsed));
+        assertEquals(8, parsed.getWindSpdKt());
+        assertEquals(5, parsed.getTimestamp());
+        assertNull(parsed.getName());
+    }
+
+    // Test that scalar coercions follow databind: numeric strings, truncated floats, nulls and numbers as text.
+    @Test
+    public void testCoercions() throws IOException {
+        String json = "{\"id\":12,\"air_temp\":\"1.5\",\"rel_hum\":60.7,\"wind_spd_kmh\":null,\"wind_spd_kt\":\"\",\"cloud\":true}";
+        WeatherEntry parsed = WeatherEntryCodec.readEntry(json);
+
+        assertEquals(objectMapper.writeValueAsString(objectMapper.readValue(json, WeatherEntry.class)),
+                objectMapper.writeValueAsString(parsed));
+        assertEquals("12", parsed.getId());
+        assertEquals(1.5, parsed.getAirTemp());
+        assertEquals(60, parsed.getRelHum());
+        assertEquals(0, parsed.getWindSpdKmh());
+        assertEquals("true", parsed.getCloud());
+    }
+
+    // Test that unknown fields and malformed input are rejected.
+    @Test
+    public void testRejectsInvalidInput() {
+        IOException unknown = assertThrows(IOException.class, () -> WeatherEntryCodec.readEntry("{\"id\":\"W100\",\"colour\":\"red\"}"));
+        assertTrue(unknown.getMessage().startsWith("Unrecognized field \"colour\" (class com.weatherApp.WeatherEntry)"));
+        assertThrows(IOException.class, () -> WeatherEntryCodec.readEntry("{\"id\":\"W100\""));
+        assertThrows(IOException.class, () -> WeatherEntryCodec.readEntry("{\"air_temp\":\"warm\"}"));
+        assertThrows(IOException.class, () -> WeatherEntryCodec.readEntry("[1]"));
+        assertThrows(IOException.class, () -> WeatherEntryCodec.readEntry(""));
+        assertThrows(IOException.class, () -> WeatherEntryCodec.readList("{\"id\":\"W100\"}"));
+
+        IOException invalid = assertThrows(IOException.class, () -> WeatherEntryCodec.readList("Invalid JSON"));
+        assertTrue(invalid.getMessage().startsWith("Unrecognized token 'Invalid'"));
+    }
+
+    // Test that lists keep null elements and a JSON null decodes to null.
+    @Test
+    public void testReadList() throws IOException {
+        List<WeatherEntry> entries = Arrays.asList(createWeatherEntry("W100"), null, createWeatherEntry("W101"));
+        byte[] json = WeatherEntryCodec.writeArrayBytes(entries);
+
+        List<WeatherEntry> parsed = WeatherEntryCodec.readList(new ByteArrayInputStream(json));
+        assertEquals(3, parsed.size());
+        assertNull(parsed.get(1));
+        assertEquals("W101", parsed.get(2).getId());
+        assertEquals(objectMapper.readValue(json, new TypeReference<List<WeatherEntry>>() {}).size(),
+                WeatherEntryCodec.readList(json).size());
+        assertNull(WeatherEntryCodec.readList("null"));
+        assertNull(WeatherEntryCodec.readEntry("null"));
+        assertTrue(WeatherEntryCodec.readList("[]").isEmpty());
+    }
+
+    // Test that root-level entries are read one after another, as in newline-delimited JSON.
+    @Test
+    public void testReadSequence() throws IOException {
+        String ndjson = WeatherEntryCodec.writeString(createWeatherEntry("W100")) + "\n"
+                + WeatherEntryCodec.writeString(createWeatherEntry("W101")) + "\n";
+        List<WeatherEntry> parsed = WeatherEntryCodec.readSequence(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, parsed.size());
+        assertEquals("W100", parsed.get(0).getId());
+        assertEquals("W101", parsed.get(1).getId());
+    }
+}
@@ -0,0 +1,196 @@
+package com.weatherApp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Helper method to create a WeatherEntry object.
+    private WeatherEntry createWeatherEntry(String id, double airTemp) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId(id);
+        entry.setName("Test Station " + id);
+        entry.setAirTemp(airTemp);
+        entry.setLastUpdated(System.currentTimeMillis());
+        return entry;
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(p -> p.getFileName().toString().contains(".wal.")).count();
+        }
+    }
+
+    // Test that appended records are replayed in order.
+    @Test
+    public void testAppendAndReplay() throws IOException {
+        String snapshotPath = tempDir.resolve("weather_data.json").toString();
+        WriteAheadLog log = new WriteAheadLog(snapshotPath);
+        log.open();
+        log.append(LogRecord.put(createWeatherEntry("W100", 20.0)));
+        log.append(LogRecord.remove("W100"));
+        log.sync();
+        log.close();
+
+        List<LogRecord> replayed = new ArrayList<>();
+        new WriteAheadLog(snapshotPath).replay(replayed::add);
+
+        assertEquals(2, replayed.size(), "Both records should be replayed");
+        assertTrue(replayed.get(0).isPut(), "First record should be a put");
+        assertEquals(20.0, replayed.get(0).getEntry().getAirTemp());
+        assertEquals(LogRecord.REMOVE, replayed.get(1).getOp());
+        assertEquals("W100", replayed.get(1).getId());
+    }
+
+    // Test that a store in WAL mode recovers its updates after a restart.
+    @Test
+    public void testStoreRecoversFromLog() throws IOException {
+        String snapshotPath = tempDir.resolve("weather_data.json").toString();
+        WeatherDataStore store = new WeatherDataStore(snapshotPath);
+        store.enableWriteAheadLog();
+        store.loadPersistedData();
+        store.saveData(createWeatherEntry("W100", 20.0), 1);
+        store.saveData(createWeatherEntry("W101", 21.0), 2);
+        store.saveData(createWeatherEntry("W100", 22.0), 3);
+        store.removeData("W101");
+        store.persistData();
+        store.close();
+
+        assertFalse(Files.exists(tempDir.resolve("weather_data.json")), "No snapshot should be written per update");
+
+        WeatherDataStore restarted = new WeatherDataStore(snapshotPath);
+        restarted.enableWriteAheadLog();
+        restarted.loadPersistedData();
+
+        assertEquals(1, restarted.size(), "Only W100 should survive the restart");
+        assertEquals(22.0, restarted.getEntry("W100").getAirTemp(), "Latest update should win");
+        assertEquals(3, restarted.getEntry("W100").getTimestamp());
+        restarted.close();
+    }
+
+    // Test that a checkpoint writes a snapshot and drops the covered segments.
+    @Test
+    public void testCheckpointTruncatesLog() throws IOException {
+        String snapshotPath = tempDir.resolve("weather_data.json").toString();
+        WeatherDataStore store = new WeatherDataStore(snapshotPath);
+        store.enableWriteAheadLog();
+        store.loadPersistedData();
+        store.saveData(createWeatherEntry("W100", 20.0), 1);
+        store.persistData();
+
+        store.checkpoint();
+        assertTrue(Files.exists(tempDir.resolve("weather_data.json")), "Checkpoint should write a snapshot");
+        assertEquals(1, countSegments(), "Only the new active segment should remain");
+
+        store.saveData(createWeatherEntry("W101", 21.0), 2);
+        store.persistData();
+        store.close();
+
+        WeatherDataStore restarted = new WeatherDataStore(snapshotPath);
+        restarted.enableWriteAheadLog();
+        restarted.loadPersistedData();
+        assertEquals(2, restarted.size(), "Snapshot plus log tail should both be loaded");
+        assertNotNull(restarted.getEntry("W101"), "Update after the checkpoint should be replayed");
+        restarted.close();
+    }
+
+    // Test that concurrent durable saves share group commits and all survive a restart.
+    @Test
+    public void testConcurrentDurableSavesAreRecovered() throws Exception {
+        String snapshotPath = tempDir.resolve("weather_data.json").toString();
+        WeatherDataStore store = new WeatherDataStore(snapshotPath);
+        store.enableWriteAheadLog(8, 500);
+        store.loadPersistedData();
+
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    store.saveDataDurably(createWeatherEntry("W" + thread + "-" + i, i), i);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        store.close();
+
+        WeatherDataStore restarted = new WeatherDataStore(snapshotPath);
+        restarted.enableWriteAheadLog();
+        restarted.loadPersistedData();
+        assertEquals(threads * perThread, restarted.size(), "Every acknowledged save should be recovered");
+        restarted.close();
+    }
+
+    // Test that saves acknowledged while checkpoints run are all recovered, whichever segment they were logged in.
+    @Test
+    public void testCheckpointDuringSavesLosesNothing() throws Exception {
+        String snapshotPath = tempDir.resolve("weather_data.json").toString();
+        WeatherDataStore store = new WeatherDataStore(snapshotPath);
+        store.enableWriteAheadLog();
+        store.loadPersistedData();
+
+        int threads = 4;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    store.saveDataDurably(createWeatherEntry("W" + thread + "-" + i, i), i);
+                }
+                return null;
+            }));
+        }
+        Future<?> checkpointer = executor.submit(() -> {
+            while (writers.stream().anyMatch(f -> !f.isDone())) {
+                store.checkpoint();
+            }
+            return null;
+        });
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        checkpointer.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+        store.close();
+
+        WeatherDataStore restarted = new WeatherDataStore(snapshotPath);
+        restarted.enableWriteAheadLog();
+        restarted.loadPersistedData();
+        assertEquals(threads * perThread, restarted.size(), "No acknowledged save should be lost to a checkpoint");
+        restarted.close();
+    }
+
+    // Test that appends are rejected once the log is closed.
+    @Test
+    public void testAppendAfterCloseFails() throws IOException {
+        WriteAheadLog log = new WriteAheadLog(tempDir.resolve("weather_data.json").toString());
+        log.open();
+        log.close();
+        assertThrows(IOException.class, () -> log.append(LogRecord.remove("W100")));
+    }
+}
@@ -0,0 +1,54 @@
+package com.weatherApp.benchmark;
+
+import com.weatherApp.WeatherEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Generates realistic-looking station data for the benchmarks.
+public final class BenchmarkData {
+    private static final String[] STATES = {"NSW", "VIC", "QLD", "SA", "WA", "TAS", "NT", "ACT"};
+    private static final String[] TIME_ZONES = {"AEST", "ACST", "AWST", "AEDT", "ACDT"};
+    private static final String[] CLOUDS = {"Sunny", "Partly cloudy", "Mostly cloudy", "Cloudy", "Rain", "Fog"};
+    private static final String[] WIND_DIRS = {"N", "NNE", "NE", "ENE", "E", "ESE", "SE", "SSE",
+            "S", "SSW", "SW", "WSW", "W", "WNW", "NW", "NNW"};
+
+    private BenchmarkData() {
+    }
+
+    // Creates one station entry; the same id and seed always give the same values.
+    public static WeatherEntry station(int index, Random random) {
+        WeatherEntry entry = new WeatherEntry();
+        entry.setId("IDS" + (60000 + index));
+        entry.setName("Station " + index);
+        entry.setState(STATES[random.nextInt(STATES.length)]);
+        entry.setTimeZone(TIME_ZONES[random.nextInt(TIME_ZONES.length)]);
+        entry.setLat(-10.0 - random.nextDouble() * 33.0);
+        entry.setLon(113.0 + random.nextDouble() * 40.0);
+        entry.setLocalDateTime("15/04:00pm");
+        entry.setLocalDateTimeFull("20230715160000");
+        entry.setAirTemp(Math.round((random.nextDouble() * 40.0) * 10) / 10.0);
+        entry.setApparentT(Math.round((random.nextDouble() * 40.0) * 10) / 10.0);
+        entry.setCloud(CLOUDS[random.nextInt(CLOUDS.length)]);
+        entry.setDewpt(Math.round((random.nextDouble() * 20.0) * 10) / 10.0);
+        entry.setPress(Math.round((990 + random.nextDouble() * 40.0) * 10) / 10.0);
+        entry.setRelHum(random.nextInt(101));
+        entry.setWindDir(WIND_DIRS[random.nextInt(WIND_DIRS.length)]);
+        entry.setWindSpdKmh(random.nextInt(80));
+        entry.setWindSpdKt(entry.getWindSpdKmh() * 54 / 100);
+        entry.setTimestamp(index + 1);
+        entry.setLastUpdated(System.currentTimeMillis());
+        return entry;
+    }
+
+    // Creates the given number of distinct stations.
+    public static List<WeatherEntry> stations(int count) {
+        Random random = new Random(42);
+        List<WeatherEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(station(i, random));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,120 @@
+package com.weatherApp.benchmark;
+
+import com.weatherApp.FeedParser;
+import com.weatherApp.WeatherEntry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Time to parse a bulk feed with FeedParser against the line-splitting reader ContentServer.readFile used to have.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedParserBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int stations;
+
+    private Path feed;
+
+    @Setup(Level.Trial)
+    public void writeFeed() throws IOException {
+        feed = Files.createTempFile("feed-bench", ".txt");
+        try (var writer = Files.newBufferedWriter(feed)) {
+            for (WeatherEntry entry : BenchmarkData.stations(stations)) {
+                writer.write(toFeedRecord(entry));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFeed() throws IOException {
+        Files.deleteIfExists(feed);
+    }
+
+    @Benchmark
+    public int feedParser(Blackhole blackhole) throws IOException {
+        int count = 0;
+        try (FeedParser parser = FeedParser.open(feed)) {
+            for (WeatherEntry entry : parser) {
+                blackhole.consume(entry);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int splitParser(Blackhole blackhole) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(feed)) {
+            WeatherEntry entry = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(":", 2);
+                if (parts.length != 2) continue;
+                String key = parts[0].trim();
+                String value = parts[1].trim();
+                // The old reader knew only one station per file; start a new one at each id
+                if (key.equals("id") && entry != null) {
+                    blackhole.consume(entry);
+                    count++;
+                    entry = null;
+                }
+                if (entry == null) {
+                    entry = new WeatherEntry();
+                }
+                applySplit(entry, key, value);
+            }
+            if (entry != null) {
+                blackhole.consume(entry);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // The field handling of the previous ContentServer.readFile.
+    private static void applySplit(WeatherEntry entry, String key, String value) {
+        switch (key) {
+            case "id": entry.setId(value); break;
+            case "name": entry.setName(value); break;
+            case "state": entry.setState(value); break;
+            case "time_zone": entry.setTimeZone(value); break;
+            case "lat": entry.setLat(Double.parseDouble(value)); break;
+            case "lon": entry.setLon(Double.parseDouble(value)); break;
+            case "local_date_time": entry.setLocalDateTime(value); break;
+            case "local_date_time_full": entry.setLocalDateTimeFull(value); break;
+            case "air_temp": entry.setAirTemp(Double.parseDouble(value)); break;
+            case "apparent_t": entry.setApparentT(Double.parseDouble(value)); break;
+            case "cloud": entry.setCloud(value); break;
+            case "dewpt": entry.setDewpt(Double.parseDouble(value)); break;
+            case "press": entry.setPress(Double.parseDouble(value)); break;
+            case "rel_hum": entry.setRelHum(Integer.parseInt(value)); break;
+            case "wind_dir": entry.setWindDir(value); break;
+            case "wind_spd_kmh": entry.setWindSpdKmh(Integer.parseInt(value)); break;
+            case "wind_spd_kt": entry.setWindSpdKt(Integer.parseInt(value)); break;
+            default: break;
+        }
+    }
+
+    private static String toFeedRecord(WeatherEntry entry) {
+        return String.format(Locale.ROOT,
+                "id:%s%nname:%s%nstate:%s%ntime_zone:%s%nlat:%.4f%nlon:%.4f%nlocal_date_time:%s%n"
+                        + "local_date_time_full:%s%nair_temp:%s%napparent_t:%s%ncloud:%s%ndewpt:%s%npress:%s%n"
+                        + "rel_hum:%d%nwind_dir:%s%nwind_spd_kmh:%d%nwind_spd_kt:%d%n",
+                entry.getId(), entry.getName(), entry.getState(), entry.getTimeZone(), entry.getLat(), entry.getLon(),
+                entry.getLocalDateTime(), entry.getLocalDateTimeFull(), entry.getAirTemp(), entry.getApparentT(),
+                entry.getCloud(), entry.getDewpt(), entry.getPress(), entry.getRelHum(), entry.getWindDir(),
+                entry.getWindSpdKmh(), entry.getWindSpdKt());
+    }
+}
@@ -0,0 +1,66 @@
+package com.weatherApp.benchmark;
+
+import com.weatherApp.LamportClock;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the shared Lamport clock under contention, against the monitor-based clock it replaced.
+// Run main to sweep 1 to 64 threads; the plain JMH launcher runs 4 contending threads unless given -t.
+@State(Scope.Benchmark)
+@Threads(4)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LamportClockBenchmark {
+
+    private final LamportClock clock = new LamportClock();
+    private final SynchronizedClock synchronizedClock = new SynchronizedClock();
+
+    // What a PUT does: merge the sender's time, usually behind ours, and take a stamp.
+    @Benchmark
+    public long updateAndGet() {
+        return clock.updateAndGet(clock.getTime() - ThreadLocalRandom.current().nextInt(4));
+    }
+
+    @Benchmark
+    public long tickAndGet() {
+        return clock.tickAndGet();
+    }
+
+    @Benchmark
+    public long synchronizedUpdateAndGet() {
+        return synchronizedClock.updateAndGet(synchronizedClock.getTime() - ThreadLocalRandom.current().nextInt(4));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32, 64}) {
+            Options options = new OptionsBuilder()
+                    .include(LamportClockBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    // The previous clock: every operation takes one monitor.
+    static class SynchronizedClock {
+        private long time;
+
+        synchronized long updateAndGet(long receivedTime) {
+            time = Math.max(time, receivedTime) + 1;
+            return time;
+        }
+
+        synchronized long getTime() {
+            return time;
+        }
+    }
+}
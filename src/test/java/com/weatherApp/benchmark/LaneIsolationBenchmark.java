@@ -0,0 +1,120 @@
+package com.weatherApp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherApp.AggregationServer;
+import com.weatherApp.WeatherEntry;
+import org.openjdk.jmh.annotations.*;
+import spark.Spark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// PUT latency while other clients flood the server with full GETs, with request lanes on and off.
+// Each parameter combination runs in its own fork, so every trial starts a fresh in-process server.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class LaneIsolationBenchmark {
+    private static final int PORT = 4720;
+    private static final int STATIONS = 50_000;
+
+    @Param({"true", "false"})
+    public String lanes;
+
+    @Param({"0", "16"})
+    public int readers;
+
+    private Path directory;
+    private String[] bodies;
+    private final List<Thread> readerThreads = new ArrayList<>();
+    private volatile boolean running = true;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Setup(Level.Trial)
+    public void startServer() throws Exception {
+        System.setProperty("aggregation.lane.enabled", lanes);
+        directory = Files.createTempDirectory("lane-bench");
+        AggregationServer.main(new String[]{String.valueOf(PORT), directory.resolve("weather_data.json").toString()});
+        Spark.awaitInitialization();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<WeatherEntry> stations = BenchmarkData.stations(STATIONS);
+        bodies = new String[STATIONS];
+        for (int i = 0; i < STATIONS; i++) {
+            bodies[i] = objectMapper.writeValueAsString(stations.get(i));
+        }
+        for (int from = 0; from < STATIONS; from += 5_000) {
+            send(HttpRequest.newBuilder(uri())
+                    .header("Content-Type", "application/json")
+                    .header("Lamport-Time", "1")
+                    .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(stations.subList(from, from + 5_000))))
+                    .build());
+        }
+
+        for (int i = 0; i < readers; i++) {
+            Thread reader = new Thread(this::readLoop, "bench-reader-" + i);
+            reader.setDaemon(true);
+            reader.start();
+            readerThreads.add(reader);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws IOException, InterruptedException {
+        running = false;
+        for (Thread reader : readerThreads) {
+            reader.join(10_000);
+        }
+        Spark.stop();
+        Spark.awaitStop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int put() throws Exception {
+        String body = bodies[ThreadLocalRandom.current().nextInt(STATIONS)];
+        return send(HttpRequest.newBuilder(uri())
+                .header("Content-Type", "application/json")
+                .header("Lamport-Time", "1")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    // Fetches the whole dataset over and over; a rejected read backs off briefly like a polite client.
+    private void readLoop() {
+        HttpRequest request = HttpRequest.newBuilder(uri()).header("Lamport-Time", "1").build();
+        while (running) {
+            try {
+                if (send(request) == 503) {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+            } catch (Exception e) {
+                return;
+            }
+        }
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static URI uri() {
+        return URI.create("http://localhost:" + PORT + "/weather.json");
+    }
+}
@@ -0,0 +1,54 @@
+package com.weatherApp.benchmark;
+
+import com.weatherApp.WeatherDataStore;
+import com.weatherApp.WeatherEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Time for persistData to rewrite the snapshot in each format. SnapshotLoadBenchmark covers loading it back.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int stations;
+
+    @Param({"JSON", "BINARY"})
+    public WeatherDataStore.SnapshotFormat format;
+
+    private Path directory;
+    private WeatherDataStore store;
+
+    @Setup(Level.Trial)
+    public void fillStore() throws IOException {
+        directory = Files.createTempDirectory("persist-bench");
+        store = new WeatherDataStore(directory.resolve("weather_data.json").toString());
+        store.setSnapshotFormat(format);
+        for (WeatherEntry entry : BenchmarkData.stations(stations)) {
+            store.saveData(entry, entry.getTimestamp());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshot() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int persistData() throws IOException {
+        store.persistData();
+        return store.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.weatherApp.benchmark;
+
+import com.weatherApp.ContentServer;
+import com.weatherApp.WeatherEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// ContentServer.readFile on a typical one-station file, which a content server reads before every upload.
+// FeedParserBenchmark covers bulk multi-station feeds.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadFileBenchmark {
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("station-bench", ".txt");
+        Files.writeString(file, String.join("\n",
+                "id:IDS60901",
+                "name:Adelaide (West Terrace /  ngayirdapira)",
+                "state: SA",
+                "time_zone:CST",
+                "lat:-34.9",
+                "lon:138.6",
+                "local_date_time:15/04:00pm",
+                "local_date_time_full:20230715160000",
+                "air_temp:13.3",
+                "apparent_t:9.5",
+                "cloud:Partly cloudy",
+                "dewpt:5.7",
+                "press:1023.9",
+                "rel_hum:60",
+                "wind_dir:S",
+                "wind_spd_kmh:15",
+                "wind_spd_kt:8") + "\n");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public WeatherEntry readFile() throws IOException {
+        return ContentServer.readFile(file.toString());
+    }
+}
@@ -0,0 +1,146 @@
+package com.weatherApp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherApp.AggregationServer;
+import com.weatherApp.ConsistentHashRing;
+import com.weatherApp.ShardRouter;
+import com.weatherApp.WeatherEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// PUT throughput of a sharded cluster with 1, 2 and 4 AggregationServer processes.
+// Each trial starts the shards and a ShardRouter as separate local JVMs. putViaRouter goes through the front end;
+// putDirect routes on the client with the same ring, showing what the shards themselves can take.
+// Scaling needs a core per shard; aggregation.* system properties (e.g. via -jvmArgsAppend) are passed to the shards.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class ShardScalingBenchmark {
+    private static final int ROUTER_PORT = 4700;
+    private static final int FIRST_SHARD_PORT = 4701;
+    private static final int STATIONS = 10_000;
+
+    @Param({"1", "2", "4"})
+    public int shards;
+
+    private final List<Process> processes = new ArrayList<>();
+    private Path directory;
+    private ConsistentHashRing ring;
+    private String[] bodies;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Setup(Level.Trial)
+    public void startCluster() throws Exception {
+        directory = Files.createTempDirectory("shard-bench");
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            int port = FIRST_SHARD_PORT + i;
+            urls.add("http://localhost:" + port);
+            start(AggregationServer.class, String.valueOf(port), directory.resolve("shard" + i + ".json").toString());
+        }
+        List<String> routerArgs = new ArrayList<>();
+        routerArgs.add(String.valueOf(ROUTER_PORT));
+        routerArgs.addAll(urls);
+        start(ShardRouter.class, routerArgs.toArray(new String[0]));
+        ring = new ConsistentHashRing(urls);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        bodies = new String[STATIONS];
+        List<WeatherEntry> stations = BenchmarkData.stations(STATIONS);
+        for (int i = 0; i < STATIONS; i++) {
+            bodies[i] = objectMapper.writeValueAsString(stations.get(i));
+        }
+        for (String url : urls) {
+            awaitUp(url);
+        }
+        awaitUp("http://localhost:" + ROUTER_PORT);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopCluster() throws IOException, InterruptedException {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+        processes.clear();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int putViaRouter() throws Exception {
+        int station = ThreadLocalRandom.current().nextInt(STATIONS);
+        return put("http://localhost:" + ROUTER_PORT, bodies[station]);
+    }
+
+    @Benchmark
+    public int putDirect() throws Exception {
+        int station = ThreadLocalRandom.current().nextInt(STATIONS);
+        return put(ring.shardFor("IDS" + (60000 + station)), bodies[station]);
+    }
+
+    private int put(String url, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/weather.json"))
+                .header("Content-Type", "application/json")
+                .header("Lamport-Time", "1")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void start(Class<?> mainClass, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("aggregation.")) {
+                command.add("-D" + key + "=" + System.getProperty(key));
+            }
+        }
+        command.add(mainClass.getName());
+        command.addAll(List.of(args));
+        processes.add(new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve(mainClass.getSimpleName() + processes.size() + ".log").toFile())
+                .start());
+    }
+
+    private void awaitUp(String url) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/weather.json?id=none"))
+                        .header("Lamport-Time", "1")
+                        .build();
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        throw new IllegalStateException(url + " did not start");
+    }
+}
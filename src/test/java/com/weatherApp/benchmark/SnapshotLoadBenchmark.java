@@ -0,0 +1,68 @@
+package com.weatherApp.benchmark;
+
+import com.weatherApp.WeatherDataStore;
+import com.weatherApp.WeatherEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Startup cost of loadPersistedData for JSON versus binary snapshots.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotLoadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int stations;
+
+    private Path directory;
+    private String jsonPath;
+    private String binaryPath;
+
+    @Setup(Level.Trial)
+    public void writeSnapshots() throws IOException {
+        directory = Files.createTempDirectory("snapshot-bench");
+        jsonPath = directory.resolve("weather_data.json").toString();
+        binaryPath = directory.resolve("weather_data.snap").toString();
+
+        WeatherDataStore source = new WeatherDataStore(jsonPath);
+        for (WeatherEntry entry : BenchmarkData.stations(stations)) {
+            source.saveData(entry, entry.getTimestamp());
+        }
+        source.exportJson(jsonPath);
+
+        WeatherDataStore binary = new WeatherDataStore(binaryPath);
+        binary.setSnapshotFormat(WeatherDataStore.SnapshotFormat.BINARY);
+        binary.importJson(jsonPath);
+        binary.checkpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshots() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int loadJson() {
+        WeatherDataStore store = new WeatherDataStore(jsonPath);
+        store.loadPersistedData();
+        return store.size();
+    }
+
+    @Benchmark
+    public int loadBinary() {
+        WeatherDataStore store = new WeatherDataStore(binaryPath);
+        store.loadPersistedData();
+        return store.size();
+    }
+}
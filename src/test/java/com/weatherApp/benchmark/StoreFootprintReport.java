@@ -0,0 +1,75 @@
+package com.weatherApp.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherApp.ColumnarStationTable;
+import com.weatherApp.WeatherDataStore;
+import com.weatherApp.WeatherEntry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Heap retained per station by each in-memory layout: the station map on its own and the whole WeatherDataStore,
+// whose change and expiry indexes are the same for both layouts. Stations are parsed from JSON first, as a server
+// receives them, so each entry has its own strings rather than sharing the generator's constants.
+// Run with: java -cp <test classpath> com.weatherApp.benchmark.StoreFootprintReport [stations]
+public class StoreFootprintReport {
+    private static final TypeReference<List<WeatherEntry>> ENTRY_LIST = new TypeReference<List<WeatherEntry>>() {};
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws IOException {
+        int stations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        byte[] json = new ObjectMapper().writeValueAsBytes(BenchmarkData.stations(stations));
+        System.out.printf("Heap per station, %,d stations%n", stations);
+        System.out.printf("%-10s %14s %14s%n", "layout", "station map", "whole store");
+        report("objects", json, stations, ConcurrentHashMap::new, WeatherDataStore.Layout.OBJECTS);
+        report("columnar", json, stations, ColumnarStationTable::new, WeatherDataStore.Layout.COLUMNAR);
+    }
+
+    private static void report(String name, byte[] json, int stations, Supplier<Map<String, WeatherEntry>> map,
+                               WeatherDataStore.Layout layout) throws IOException {
+        long mapBytes = retained(json, entries -> {
+            Map<String, WeatherEntry> table = map.get();
+            entries.forEach(entry -> table.put(entry.getId(), entry));
+            return table;
+        });
+        long storeBytes = retained(json, entries -> {
+            WeatherDataStore store = new WeatherDataStore("footprint.json", layout);
+            entries.forEach(entry -> store.saveData(entry, entry.getTimestamp()));
+            return store;
+        });
+        System.out.printf("%-10s %12d B %12d B%n", name, mapBytes / stations, storeBytes / stations);
+    }
+
+    // Measures the heap still held by what build returns once the parsed entries are garbage.
+    private static long retained(byte[] json, Builder build) throws IOException {
+        long before = usedHeap();
+        Object holder = build.apply(new ObjectMapper().readValue(json, ENTRY_LIST));
+        long after = usedHeap();
+        // Keep the result reachable until after the measurement
+        Reference.reachabilityFence(holder);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private interface Builder {
+        Object apply(List<WeatherEntry> entries);
+    }
+}
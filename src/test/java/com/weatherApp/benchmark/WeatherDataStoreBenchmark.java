@@ -0,0 +1,99 @@
+package com.weatherApp.benchmark;
+
+import com.weatherApp.WeatherDataStore;
+import com.weatherApp.WeatherEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// In-memory store operations at different store sizes and in both layouts: updating a station, looking one up, copying everything
+// and an expiry pass, both idle and with 1% of the stations due.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WeatherDataStoreBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int stations;
+
+    @Param({"OBJECTS", "COLUMNAR"})
+    public WeatherDataStore.Layout layout;
+
+    private WeatherDataStore store;
+    private WeatherEntry[] updates;
+    private String[] ids;
+    private long stamp;
+
+    @Setup(Level.Trial)
+    public void fillStore() {
+        store = new WeatherDataStore("unused.json", layout);
+        List<WeatherEntry> entries = BenchmarkData.stations(stations);
+        ids = new String[stations];
+        for (int i = 0; i < stations; i++) {
+            WeatherEntry entry = entries.get(i);
+            store.saveData(entry, entry.getTimestamp());
+            ids[i] = entry.getId();
+        }
+        stamp = stations;
+        // A separate set of objects for the same stations. With the object layout they become the stored entries after
+        // their first save, so later rounds re-save an entry in place; upsert moves its index keys either way
+        updates = BenchmarkData.stations(Math.min(stations, 10_000)).toArray(new WeatherEntry[0]);
+    }
+
+    // What a PUT does to the store for an existing station.
+    @Benchmark
+    public boolean saveData() {
+        WeatherEntry update = updates[ThreadLocalRandom.current().nextInt(updates.length)];
+        return store.saveData(update, ++stamp);
+    }
+
+    @Benchmark
+    public WeatherEntry getEntry() {
+        return store.getEntry(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    // A full copy of the data, as for an uncached GET.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int getData() {
+        return store.getData().size();
+    }
+
+    // The scheduled expiry tick when nothing is due, which is almost every tick.
+    @Benchmark
+    public int expireIdle() {
+        return store.expireOldData();
+    }
+
+    // Expiry passes that each remove 1% of the stations.
+    @State(Scope.Benchmark)
+    public static class DueStations {
+        private WeatherEntry[] stale;
+
+        @Setup(Level.Trial)
+        public void createStale(WeatherDataStoreBenchmark benchmark) {
+            stale = BenchmarkData.stations(Math.max(1, benchmark.stations / 100)).toArray(new WeatherEntry[0]);
+            for (WeatherEntry entry : stale) {
+                entry.setId(entry.getId() + "-stale");
+                entry.setLastUpdated(0);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void addStale(WeatherDataStoreBenchmark benchmark) {
+            for (WeatherEntry entry : stale) {
+                benchmark.store.saveData(entry, ++benchmark.stamp);
+            }
+        }
+    }
+
+    @Benchmark
+    public int expireDue(DueStations due) {
+        return store.expireOldData();
+    }
+}
@@ -0,0 +1,62 @@
+package com.weatherApp.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherApp.WeatherEntry;
+import com.weatherApp.WeatherEntryCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Encode and decode of one WeatherEntry (a PUT body) and of a 1,000-station array (a GET response),
+// with Jackson databind and with the streaming WeatherEntryCodec. Run with -prof gc to compare allocation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherEntryJsonBenchmark {
+    private static final TypeReference<List<WeatherEntry>> ENTRY_LIST = new TypeReference<List<WeatherEntry>>() {};
+
+    @Param({"databind", "codec"})
+    public String codec;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private boolean streaming;
+    private WeatherEntry entry;
+    private List<WeatherEntry> entries;
+    private byte[] entryJson;
+    private byte[] arrayJson;
+
+    @Setup(Level.Trial)
+    public void createData() throws IOException {
+        streaming = "codec".equals(codec);
+        entries = BenchmarkData.stations(1_000);
+        entry = entries.get(0);
+        entryJson = objectMapper.writeValueAsBytes(entry);
+        arrayJson = objectMapper.writeValueAsBytes(entries);
+    }
+
+    @Benchmark
+    public byte[] encodeEntry() throws IOException {
+        return streaming ? WeatherEntryCodec.writeBytes(entry) : objectMapper.writeValueAsBytes(entry);
+    }
+
+    @Benchmark
+    public WeatherEntry decodeEntry() throws IOException {
+        return streaming ? WeatherEntryCodec.readEntry(entryJson) : objectMapper.readValue(entryJson, WeatherEntry.class);
+    }
+
+    @Benchmark
+    public byte[] encodeArray() throws IOException {
+        return streaming ? WeatherEntryCodec.writeArrayBytes(entries) : objectMapper.writeValueAsBytes(entries);
+    }
+
+    @Benchmark
+    public List<WeatherEntry> decodeArray() throws IOException {
+        return streaming ? WeatherEntryCodec.readList(arrayJson) : objectMapper.readValue(arrayJson, ENTRY_LIST);
+    }
+}